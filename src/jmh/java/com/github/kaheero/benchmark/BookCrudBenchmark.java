@@ -0,0 +1,88 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Book create, read, update and batch import throughput from eight threads, with and without the
+ * {@code tuned} profile. Each thread updates its own stripe of ids so optimistic locking never
+ * fires.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BookCrudBenchmark {
+
+  private static final int IMPORT_BATCH = 50;
+  private static final AtomicInteger THREADS = new AtomicInteger();
+  private static final AtomicLong ISBNS = new AtomicLong();
+
+  private BookService service;
+  private long firstId;
+  private long stripe;
+  private long next;
+
+  @Setup(Level.Trial)
+  public void setup(TunedBookDataset dataset) {
+    service = dataset.bean(BookService.class);
+    stripe = dataset.books / 8;
+    firstId = THREADS.getAndIncrement() % 8 * stripe + 1;
+  }
+
+  @Benchmark
+  public BookEntity create() {
+    return service.save(BookEntity.builder()
+        .title("Benchmark")
+        .author("JMH")
+        .isbn("crud-" + ISBNS.incrementAndGet())
+        .build());
+  }
+
+  @Benchmark
+  public Page<BookEntity> read() {
+    return service.find(BookEntity.builder().author("author 42").build(), PageRequest.of(0, 20));
+  }
+
+  @Benchmark
+  public BookEntity update() {
+    BookEntity book = service.getBookById(firstId + next++ % stripe).orElseThrow();
+    book.setTitle("Updated " + next);
+    return service.update(book);
+  }
+
+  @Benchmark
+  public List<BookEntity> importBatch() {
+    return service.saveAll(IntStream.range(0, IMPORT_BATCH)
+        .mapToObj(i -> BookEntity.builder()
+            .title("Imported")
+            .author("JMH")
+            .isbn("import-" + ISBNS.incrementAndGet())
+            .build())
+        .collect(Collectors.toList()));
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.Application;
+import com.github.kaheero.book.BookSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Boots the application against embedded H2 and loads {@code books} rows before the trial. Large
+ * catalogs need a bigger heap, e.g. {@code -jvmArgsAppend -Xmx8g -p books=10000000}.
+ */
+@State(Scope.Benchmark)
+public class BookDataset {
+
+  public static final int AUTHORS = 1_000;
+
+  @Param({"10000"})
+  public int books;
+
+  private ConfigurableApplicationContext context;
+
+  @Setup(Level.Trial)
+  public void start() throws InterruptedException {
+    context = application().run();
+    populate();
+    index();
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  public <T> T bean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  public ConfigurableApplicationContext context() {
+    return context;
+  }
+
+  protected SpringApplicationBuilder application() {
+    return new SpringApplicationBuilder(Application.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.main.banner-mode=off",
+            "logging.level.root=warn",
+            "spring.jpa.open-in-view=false");
+  }
+
+  private void populate() {
+    JdbcTemplate jdbc = bean(JdbcTemplate.class);
+    // explicit transaction: the tuned profile turns auto-commit off
+    new TransactionTemplate(bean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+      jdbc.update("insert into book_entity (id, title, author, isbn, version, last_modified) "
+          + "select x, concat('Title ', x), concat('Author ', mod(x, " + AUTHORS + ")), "
+          + "concat('isbn-', x), 0, current_timestamp from system_range(1, ?)", books);
+      // the pooled-lo optimizer hands out the block starting at the value it reads
+      jdbc.execute("alter sequence book_sequence restart with " + (books + 1));
+    });
+  }
+
+  private void index() throws InterruptedException {
+    BookSearchIndex searchIndex = bean(BookSearchIndex.class);
+    searchIndex.rebuild();
+    while (!searchIndex.isReady()) {
+      Thread.sleep(100);
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookController;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full catalog export through {@code GET /books/_export}, from the JDBC cursor to NDJSON bytes,
+ * written to a counting sink. Heap stays flat with the catalog size, e.g.
+ * {@code -p books=10000000 -jvmArgsAppend -Xmx8g} (the heap is for H2, not the export).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BookExportBenchmark {
+
+  private BookController controller;
+
+  @Setup(Level.Trial)
+  public void setup(BookDataset dataset) {
+    controller = dataset.bean(BookController.class);
+  }
+
+  @Benchmark
+  public long exportAll() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    controller.exportBooks().getBody().writeTo(out);
+    return out.bytes;
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long bytes;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+
+  }
+
+}
@@ -0,0 +1,67 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Import throughput in rows per second: one batch through {@link BookService#saveAll} against one
+ * row per {@link BookService#save} call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class BookImportBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private BookService service;
+
+  @Setup(Level.Trial)
+  public void setup(BookDataset dataset) {
+    service = dataset.bean(BookService.class);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<BookEntity> importBatch() {
+    return service.saveAll(IntStream.range(0, BATCH_SIZE)
+        .mapToObj(i -> book())
+        .collect(Collectors.toList()));
+  }
+
+  @Benchmark
+  public BookEntity importOneByOne() {
+    return service.save(book());
+  }
+
+  private BookEntity book() {
+    return BookEntity.builder()
+        .title("Imported")
+        .author("JMH")
+        .isbn("import-" + sequence.incrementAndGet())
+        .build();
+  }
+
+}
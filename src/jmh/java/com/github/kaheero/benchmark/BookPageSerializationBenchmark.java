@@ -0,0 +1,62 @@
+package com.github.kaheero.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kaheero.book.BookDTO;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON serialization of the {@code Page<BookDTO>} returned by {@code GET /books}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookPageSerializationBenchmark {
+
+  @Param({"20", "100"})
+  private int pageSize;
+
+  private ObjectMapper objectMapper;
+  private Page<BookDTO> page;
+
+  @Setup
+  public void setup() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    List<BookDTO> books = LongStream.range(0, pageSize)
+        .mapToObj(id -> BookDTO.builder()
+            .id(id)
+            .title("Title " + id)
+            .author("Author " + id)
+            .isbn("isbn-" + id)
+            .build())
+        .collect(Collectors.toList());
+    page = new PageImpl<>(books, PageRequest.of(0, pageSize), 10_000);
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * {@link BookService#find} and {@link BookService#save} against the embedded H2 catalog loaded by
+ * {@link BookDataset}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BookServiceBenchmark {
+
+  private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private BookService service;
+  private Pageable lastPage;
+  private long lastCursor;
+
+  @Setup(Level.Trial)
+  public void setup(BookDataset dataset) {
+    service = dataset.bean(BookService.class);
+    lastPage = PageRequest.of(dataset.books / FIRST_PAGE.getPageSize() - 1,
+        FIRST_PAGE.getPageSize());
+    lastCursor = dataset.books - FIRST_PAGE.getPageSize();
+  }
+
+  @Benchmark
+  public Page<BookEntity> findAll() {
+    return service.find(new BookEntity(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findDeepPage() {
+    return service.find(new BookEntity(), lastPage);
+  }
+
+  @Benchmark
+  public Slice<BookEntity> findAfterDeepCursor() {
+    return service.findAfter(new BookEntity(), lastCursor, FIRST_PAGE.getPageSize());
+  }
+
+  @Benchmark
+  public Slice<BookEntity> findShortTermWithoutCount() {
+    return service.findSlice(BookEntity.builder().author("42").build(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findShortTermWithEstimatedCount() {
+    return service.findWithEstimatedTotal(BookEntity.builder().author("42").build(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findShortTerm() {
+    return service.find(BookEntity.builder().author("42").build(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findByTitle() {
+    return service.find(BookEntity.builder().title("title 4242").build(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findByAuthor() {
+    return service.find(BookEntity.builder().author("author 42").build(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public BookEntity save() {
+    return service.save(BookEntity.builder()
+        .title("Benchmark")
+        .author("JMH")
+        .isbn("bench-" + sequence.incrementAndGet())
+        .build());
+  }
+
+}
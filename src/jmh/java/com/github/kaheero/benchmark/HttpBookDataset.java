@@ -0,0 +1,43 @@
+package com.github.kaheero.benchmark;
+
+import java.net.URI;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * {@link BookDataset} served over HTTP on a random port, either from Tomcat's platform thread pool
+ * or from virtual threads. The {@code virtual} mode needs a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+public class HttpBookDataset extends BookDataset {
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"10"})
+  public int jdbcPoolSize;
+
+  @Override
+  protected SpringApplicationBuilder application() {
+    return super.application()
+        .web(WebApplicationType.SERVLET)
+        .properties(
+            "server.port=0",
+            "library.threads.virtual=" + "virtual".equals(threads),
+            "server.tomcat.max-connections=10000",
+            "server.tomcat.accept-count=1000",
+            "spring.datasource.hikari.maximum-pool-size=" + jdbcPoolSize,
+            "spring.datasource.hikari.connection-timeout=30000");
+  }
+
+  public URI uri(String path) {
+    return URI.create("http://localhost:"
+        + context().getEnvironment().getProperty("local.server.port")
+        + context().getEnvironment().getProperty("server.servlet.context-path")
+        + path);
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.loans.LoanController;
+import com.github.kaheero.loans.LoanDTO;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checkouts per second through {@link LoanController#create} from four threads, each on its own
+ * stripe of books. Every iteration starts with all books on the shelf, so an iteration must not
+ * check out more than {@code books}; raise it with {@code -p books=...} on fast machines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoanCheckoutBenchmark {
+
+  private static final AtomicInteger THREADS = new AtomicInteger();
+
+  private LoanController controller;
+  private JdbcTemplate jdbc;
+  private TransactionTemplate transaction;
+  private long firstBook;
+  private long stripe;
+  private long next;
+
+  @Setup(Level.Trial)
+  public void setup(BookDataset dataset) {
+    controller = dataset.bean(LoanController.class);
+    jdbc = dataset.bean(JdbcTemplate.class);
+    transaction = new TransactionTemplate(dataset.bean(PlatformTransactionManager.class));
+    stripe = dataset.books / 4;
+    firstBook = THREADS.getAndIncrement() % 4 * stripe + 1;
+  }
+
+  @Setup(Level.Iteration)
+  public void returnAll() {
+    next = 0;
+    transaction.executeWithoutResult(status -> jdbc.update("update loan_entity "
+        + "set returned = true, active_book_id = null where active_book_id between ? and ?",
+        firstBook, firstBook + stripe - 1));
+  }
+
+  @Benchmark
+  public Long checkout() {
+    return controller.create(LoanDTO.builder()
+        .isbn("isbn-" + (firstBook + next++ % stripe))
+        .customer("Customer " + next)
+        .build());
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.github.kaheero.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * {@link BookDataset} with the overdue scan chunk size as a parameter; the loans themselves are
+ * loaded by the benchmark.
+ */
+@State(Scope.Benchmark)
+public class LoanDataset extends BookDataset {
+
+  @Param({"1000"})
+  public int chunkSize;
+
+  @Override
+  protected SpringApplicationBuilder application() {
+    return super.application().properties(
+        "library.loans.overdue.chunk-size=" + chunkSize,
+        "library.scheduling.enabled=false");
+  }
+
+}
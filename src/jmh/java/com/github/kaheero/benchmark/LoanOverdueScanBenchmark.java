@@ -0,0 +1,70 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.loans.LoanOverdueScanner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One full overdue scan over {@code loans} rows, a tenth of them open and two thirds of those overdue.
+ * Every invocation starts from a table where nobody has been notified yet. For 10 million loans
+ * use {@code -p loans=10000000 -jvmArgsAppend -Xmx8g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class LoanOverdueScanBenchmark {
+
+  @Param({"1000000"})
+  public int loans;
+
+  private LoanOverdueScanner scanner;
+  private JdbcTemplate jdbc;
+  private TransactionTemplate transaction;
+
+  @Setup(Level.Trial)
+  public void setup(LoanDataset dataset) {
+    scanner = dataset.bean(LoanOverdueScanner.class);
+    jdbc = dataset.bean(JdbcTemplate.class);
+    transaction = new TransactionTemplate(dataset.bean(PlatformTransactionManager.class));
+    transaction.executeWithoutResult(status -> {
+      jdbc.update("insert into loan_entity (id, isbn, customer, book_id, active_book_id, start_at, "
+          + "due_at, end_at, returned, renewals, version) "
+          + "select x, concat('isbn-', mod(x, ?) + 1), concat('Customer ', mod(x, 50000)), "
+          + "mod(x, ?) + 1, case when mod(x, 10) = 0 then x end, "
+          + "dateadd('DAY', -mod(x, 60), current_date), "
+          + "dateadd('DAY', 14 - mod(x, 60), current_date), "
+          + "case when mod(x, 10) = 0 then null else current_date end, "
+          + "mod(x, 10) <> 0, 0, 0 from system_range(1, ?)", dataset.books, dataset.books, loans);
+      jdbc.execute("alter sequence loan_sequence restart with " + (loans + 1));
+    });
+  }
+
+  @Setup(Level.Invocation)
+  public void reset() {
+    transaction.executeWithoutResult(status -> jdbc.update(
+        "update loan_entity set overdue_notified_at = null where overdue_notified_at is not null"));
+  }
+
+  @Benchmark
+  public int scan() {
+    return scanner.scan();
+  }
+
+}
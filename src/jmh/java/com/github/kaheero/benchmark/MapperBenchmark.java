@@ -0,0 +1,124 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookDTO;
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookMapper;
+import com.github.kaheero.book.BookMapperImpl;
+import com.github.kaheero.loans.LoanDTO;
+import com.github.kaheero.loans.LoanEntity;
+import com.github.kaheero.loans.LoanMapper;
+import com.github.kaheero.loans.LoanMapperImpl;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the generated MapStruct mappers with the reflective ModelMapper path they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperBenchmark {
+
+  @Param({"20", "100"})
+  private int pageSize;
+
+  private ModelMapper modelMapper;
+  private BookMapper bookMapper;
+  private LoanMapper loanMapper;
+
+  private BookDTO bookDTO;
+  private BookEntity bookEntity;
+  private List<BookEntity> page;
+  private LoanDTO loanDTO;
+
+  @Setup
+  public void setup() {
+    modelMapper = new ModelMapper();
+    bookMapper = new BookMapperImpl();
+    loanMapper = new LoanMapperImpl();
+
+    bookDTO = BookDTO.builder()
+        .title("Vinte mil léguas submarinas.")
+        .author("Julio Verne")
+        .isbn("978-85-7657-313-5")
+        .build();
+    bookEntity = BookEntity.builder()
+        .id(1L)
+        .title(bookDTO.getTitle())
+        .author(bookDTO.getAuthor())
+        .isbn(bookDTO.getIsbn())
+        .build();
+    page = LongStream.range(0, pageSize)
+        .mapToObj(id -> BookEntity.builder()
+            .id(id)
+            .title("title " + id)
+            .author("author " + id)
+            .isbn("isbn-" + id)
+            .build())
+        .collect(Collectors.toList());
+    loanDTO = LoanDTO.builder()
+        .isbn("978-85-7657-313-5")
+        .customer("John Doe")
+        .build();
+  }
+
+  @Benchmark
+  public BookEntity modelMapperBookToEntity() {
+    return modelMapper.map(bookDTO, BookEntity.class);
+  }
+
+  @Benchmark
+  public BookEntity mapStructBookToEntity() {
+    return bookMapper.toEntity(bookDTO);
+  }
+
+  @Benchmark
+  public BookDTO modelMapperBookToDto() {
+    return modelMapper.map(bookEntity, BookDTO.class);
+  }
+
+  @Benchmark
+  public BookDTO mapStructBookToDto() {
+    return bookMapper.toDto(bookEntity);
+  }
+
+  @Benchmark
+  public List<BookDTO> modelMapperBookPage() {
+    return page.stream()
+        .map(entity -> modelMapper.map(entity, BookDTO.class))
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<BookDTO> mapStructBookPage() {
+    return bookMapper.toDtos(page);
+  }
+
+  @Benchmark
+  public LoanEntity modelMapperLoanToEntity() {
+    return modelMapper.map(loanDTO, LoanEntity.class);
+  }
+
+  @Benchmark
+  public LoanEntity mapStructLoanToEntity() {
+    return loanMapper.toEntity(loanDTO);
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookService;
+import com.github.kaheero.book.BookVersion;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.AopTestUtils;
+
+/**
+ * Cost of the {@code @Timed} aspect: the same calls through the instrumented bean and straight on
+ * its target. {@code getBookVersion} is the cheapest timed query and shows the fixed per-call cost;
+ * {@code find} shows it against a typical listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MetricsOverheadBenchmark {
+
+  private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+  private BookService timed;
+  private BookService untimed;
+
+  @Setup(Level.Trial)
+  public void setup(BookDataset dataset) {
+    timed = dataset.bean(BookService.class);
+    untimed = AopTestUtils.getUltimateTargetObject(timed);
+  }
+
+  @Benchmark
+  public Optional<BookVersion> versionTimed() {
+    return timed.getBookVersion(1L);
+  }
+
+  @Benchmark
+  public Optional<BookVersion> versionUntimed() {
+    return untimed.getBookVersion(1L);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findTimed() {
+    return timed.find(BookEntity.builder().author("author 42").build(), FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> findUntimed() {
+    return untimed.find(BookEntity.builder().author("author 42").build(), FIRST_PAGE);
+  }
+
+}
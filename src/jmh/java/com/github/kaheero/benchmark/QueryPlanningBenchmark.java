@@ -0,0 +1,63 @@
+package com.github.kaheero.benchmark;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookRepository;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * The same filtered, sorted and counted page through Query by Example, as {@code find} used to
+ * do, and through the memoized JPQL of {@code findMatching}. Run on a small catalog so that query
+ * construction and planning, not the scan, dominate: {@code -p books=1000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class QueryPlanningBenchmark {
+
+  private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("title"));
+
+  private BookRepository repository;
+
+  @Setup(Level.Trial)
+  public void setup(BookDataset dataset) {
+    repository = dataset.bean(BookRepository.class);
+  }
+
+  @Benchmark
+  public Page<BookEntity> queryByExample() {
+    return repository.findAll(Example.of(probe(), ExampleMatcher.matching()
+        .withIgnoreCase()
+        .withIgnoreNullValues()
+        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING)), PAGE);
+  }
+
+  @Benchmark
+  public Page<BookEntity> memoizedJpql() {
+    return repository.findMatching(probe(), PAGE);
+  }
+
+  private static BookEntity probe() {
+    return BookEntity.builder().author("author 42").build();
+  }
+
+}
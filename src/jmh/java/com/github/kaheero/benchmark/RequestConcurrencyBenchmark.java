@@ -0,0 +1,76 @@
+package com.github.kaheero.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test for the request thread model: bursts of {@code concurrency} simultaneous JDBC-bound
+ * listings against the platform thread pool and against virtual threads. The terms are shorter
+ * than a trigram, so every request goes through the database rather than the search index.
+ * Runs on Java 21 for both modes, e.g. {@code -p concurrency=2000 -p jdbcPoolSize=20}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class RequestConcurrencyBenchmark {
+
+  @Param({"1000"})
+  public int concurrency;
+
+  private HttpClient client;
+
+  private HttpRequest[] requests;
+
+  @Setup(Level.Trial)
+  public void setup(HttpBookDataset dataset) {
+    client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(30))
+        .build();
+    requests = new HttpRequest[100];
+    for (int i = 0; i < requests.length; i++) {
+      URI uri = dataset.uri("/books?title=" + i + "&count=NONE&size=20");
+      requests[i] = HttpRequest.newBuilder(uri).GET().build();
+    }
+  }
+
+  @Benchmark
+  public int burst() {
+    CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+    for (int i = 0; i < concurrency; i++) {
+      responses[i] = client.sendAsync(requests[i % requests.length], BodyHandlers.discarding())
+          .thenApply(RequestConcurrencyBenchmark::requirePartialContent);
+    }
+    CompletableFuture.allOf(responses).join();
+    return responses.length;
+  }
+
+  private static int requirePartialContent(HttpResponse<Void> response) {
+    if (response.statusCode() != 206) {
+      throw new IllegalStateException("GET " + response.uri() + " -> " + response.statusCode());
+    }
+    return response.statusCode();
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.github.kaheero.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * {@link BookDataset} with or without the {@code tuned} profile, the driver-agnostic half of
+ * {@code prod}: sized pool, deferred connection acquisition, versioned and ordered batching.
+ */
+@State(Scope.Benchmark)
+public class TunedBookDataset extends BookDataset {
+
+  @Param({"default", "tuned"})
+  public String profile;
+
+  @Override
+  protected SpringApplicationBuilder application() {
+    SpringApplicationBuilder application = super.application();
+    return "tuned".equals(profile) ? application.profiles("tuned") : application;
+  }
+
+}
@@ -1,7 +1,9 @@
 package com.github.kaheero;
 
+import com.github.kaheero.exceptions.AdmissionRejectedException;
 import com.github.kaheero.exceptions.ApiErrors;
 import com.github.kaheero.exceptions.BusinessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestControllerAdvice
@@ -21,12 +24,26 @@ public class ApplicationControllerAdvice {
     return new ApiErrors(bindingResult);
   }
 
+  @ExceptionHandler(WebExchangeBindException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ApiErrors handleValidationExceptions(WebExchangeBindException exception) {
+    return new ApiErrors(exception.getBindingResult());
+  }
+
   @ExceptionHandler(BusinessException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ApiErrors handleValidationExceptions(BusinessException exception) {
     return new ApiErrors(exception);
   }
 
+  @ExceptionHandler(AdmissionRejectedException.class)
+  public ResponseEntity<ApiErrors> handleAdmissionRejectedException(
+      AdmissionRejectedException exception) {
+    return ResponseEntity.status(exception.getStatus())
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+        .body(new ApiErrors(exception));
+  }
+
   @ExceptionHandler(ResponseStatusException.class)
   public ResponseEntity<ApiErrors> handleResponseStatusException(
       ResponseStatusException exception) {
@@ -0,0 +1,18 @@
+package com.github.kaheero.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler in a traffic class other than the one its method implies ({@code GET} is
+ * {@link TrafficClass#READ}, anything else {@link TrafficClass#WRITE}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionClass {
+
+  TrafficClass value();
+
+}
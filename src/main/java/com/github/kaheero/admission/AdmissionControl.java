@@ -0,0 +1,133 @@
+package com.github.kaheero.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.kaheero.exceptions.AdmissionRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Admits a request in two steps. First the class is shed with 503 while at least {@code shedAt}
+ * threads wait for a JDBC connection or while it is at its concurrency limit; searches default to
+ * shedding on the first waiter and writes to never, so a saturated pool turns searches away before
+ * it starves loans. Then the token bucket of the client for that endpoint, filled at the rate of
+ * the traffic class, answers 429 when it is empty. A shed request never spends a token, so being
+ * turned away for the server's load does not push the client toward 429. Every step is a map
+ * lookup, a compare-and-set or an atomic increment.
+ */
+public class AdmissionControl implements MeterBinder {
+
+  private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+  private final Map<TrafficClass, Limit> limits;
+  private final Cache<String, TokenBucket> buckets;
+  private final IntSupplier awaitingConnection;
+  private final LongSupplier nanoTime;
+  private final Map<TrafficClass, AtomicInteger> inFlight = new EnumMap<>(TrafficClass.class);
+  private final Map<TrafficClass, LongAdder> admitted = new EnumMap<>(TrafficClass.class);
+  private final Map<TrafficClass, LongAdder> limited = new EnumMap<>(TrafficClass.class);
+  private final Map<TrafficClass, LongAdder> shed = new EnumMap<>(TrafficClass.class);
+
+  public AdmissionControl(Map<TrafficClass, Limit> limits, long maximumBuckets,
+      IntSupplier awaitingConnection) {
+    this(limits, maximumBuckets, awaitingConnection, System::nanoTime);
+  }
+
+  AdmissionControl(Map<TrafficClass, Limit> limits, long maximumBuckets,
+      IntSupplier awaitingConnection, LongSupplier nanoTime) {
+    this.limits = new EnumMap<>(limits);
+    this.buckets = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(5))
+        .maximumSize(maximumBuckets)
+        .build();
+    this.awaitingConnection = awaitingConnection;
+    this.nanoTime = nanoTime;
+    for (TrafficClass trafficClass : TrafficClass.values()) {
+      inFlight.put(trafficClass, new AtomicInteger());
+      admitted.put(trafficClass, new LongAdder());
+      limited.put(trafficClass, new LongAdder());
+      shed.put(trafficClass, new LongAdder());
+    }
+  }
+
+  /**
+   * Admits the request or throws {@link AdmissionRejectedException}; every admission must be
+   * paired with a {@link #release}. {@code endpoint} names the handler, so each endpoint has its
+   * own bucket per client.
+   */
+  public void admit(String client, String endpoint, TrafficClass trafficClass) {
+    Limit limit = limits.get(trafficClass);
+    if (limit.getShedAt() > 0 && awaitingConnection.getAsInt() >= limit.getShedAt()) {
+      throw shed(trafficClass);
+    }
+    AtomicInteger running = inFlight.get(trafficClass);
+    if (running.incrementAndGet() > limit.getMaxConcurrent() && limit.getMaxConcurrent() > 0) {
+      running.decrementAndGet();
+      throw shed(trafficClass);
+    }
+    long now = nanoTime.getAsLong();
+    TokenBucket bucket = buckets.get(endpoint + " " + client,
+        key -> new TokenBucket(limit.getRate(), limit.getBurst(), now));
+    long wait = bucket.tryAcquire(now);
+    if (wait > 0) {
+      running.decrementAndGet();
+      limited.get(trafficClass).increment();
+      throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+          Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L)),
+          "Too many " + name(trafficClass) + " requests");
+    }
+    admitted.get(trafficClass).increment();
+  }
+
+  public void release(TrafficClass trafficClass) {
+    inFlight.get(trafficClass).decrementAndGet();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (TrafficClass trafficClass : TrafficClass.values()) {
+      String tag = name(trafficClass);
+      FunctionCounter.builder("admission.requests", admitted.get(trafficClass), LongAdder::sum)
+          .tags("class", tag, "result", "admitted")
+          .register(registry);
+      FunctionCounter.builder("admission.requests", limited.get(trafficClass), LongAdder::sum)
+          .tags("class", tag, "result", "limited")
+          .register(registry);
+      FunctionCounter.builder("admission.requests", shed.get(trafficClass), LongAdder::sum)
+          .tags("class", tag, "result", "shed")
+          .register(registry);
+      Gauge.builder("admission.inflight", inFlight.get(trafficClass), AtomicInteger::get)
+          .tag("class", tag)
+          .register(registry);
+    }
+    Gauge.builder("admission.buckets", buckets, Cache::estimatedSize)
+        .register(registry);
+  }
+
+  int inFlight(TrafficClass trafficClass) {
+    return inFlight.get(trafficClass).get();
+  }
+
+  private AdmissionRejectedException shed(TrafficClass trafficClass) {
+    shed.get(trafficClass).increment();
+    return new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+        SHED_RETRY_AFTER_SECONDS, "Service busy, " + name(trafficClass) + " requests are shed");
+  }
+
+  private static String name(TrafficClass trafficClass) {
+    return trafficClass.name().toLowerCase(Locale.ROOT);
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.github.kaheero.admission;
+
+import java.util.Objects;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Runs admission before the handler, so a rejection is an exception from the handler's dispatch
+ * and is rendered by {@code ApplicationControllerAdvice}. The slot is released when the request
+ * completes, which for streaming responses is the end of the async dispatch. Clients are told apart
+ * by their address, never by a header they choose: behind a proxy that address comes from
+ * {@code X-Forwarded-For} only when the proxy is trusted ({@code server.forward-headers-strategy}).
+ * Endpoints are told apart by the HTTP method and the pattern of the mapping that matched, so
+ * {@code /books/1} and {@code /books/2} share a bucket.
+ */
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+  private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".ADMITTED";
+
+  private final AdmissionControl admission;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST
+        || !(handler instanceof HandlerMethod)) {
+      return true;
+    }
+    TrafficClass trafficClass = classify(request, (HandlerMethod) handler);
+    admission.admit(request.getRemoteAddr(), endpoint(request, (HandlerMethod) handler),
+        trafficClass);
+    request.setAttribute(ADMITTED, trafficClass);
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception exception) {
+    Object trafficClass = request.getAttribute(ADMITTED);
+    if (Objects.nonNull(trafficClass)) {
+      request.removeAttribute(ADMITTED);
+      admission.release((TrafficClass) trafficClass);
+    }
+  }
+
+  private static String endpoint(HttpServletRequest request, HandlerMethod handler) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return request.getMethod() + " "
+        + (Objects.isNull(pattern) ? handler.getMethod().toGenericString() : pattern);
+  }
+
+  private static TrafficClass classify(HttpServletRequest request, HandlerMethod handler) {
+    AdmissionClass declared = handler.getMethodAnnotation(AdmissionClass.class);
+    if (Objects.nonNull(declared)) {
+      return declared.value();
+    }
+    String method = request.getMethod();
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+        ? TrafficClass.READ
+        : TrafficClass.WRITE;
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.github.kaheero.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Admission limits of one traffic class. {@code rate} and {@code burst} apply per client; a zero
+ * {@code maxConcurrent} or {@code shedAt} turns that check off.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Limit {
+
+  /**
+   * Sustained requests per second.
+   */
+  private double rate;
+
+  /**
+   * Requests a client may send at once after being idle.
+   */
+  private int burst;
+
+  /**
+   * Requests of the class running at the same time, across clients.
+   */
+  private int maxConcurrent;
+
+  /**
+   * Threads waiting for a JDBC connection at which the class is shed.
+   */
+  private int shedAt;
+
+}
@@ -0,0 +1,40 @@
+package com.github.kaheero.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single timestamp (the generic cell rate algorithm): the time at which
+ * the bucket would be full again. Taking a token pushes it one interval further, and a request is
+ * refused when that would put it more than {@code burst} intervals ahead of now. One
+ * compare-and-set per admitted request, no lock.
+ */
+final class TokenBucket {
+
+  private final long interval;
+  private final long tolerance;
+  private final AtomicLong full;
+
+  TokenBucket(double ratePerSecond, int burst, long now) {
+    this.interval = (long) (1_000_000_000L / ratePerSecond);
+    this.tolerance = interval * burst;
+    this.full = new AtomicLong(now);
+  }
+
+  /**
+   * Returns 0 when a token was taken, otherwise the nanoseconds until one is available.
+   */
+  long tryAcquire(long now) {
+    while (true) {
+      long current = full.get();
+      long next = Math.max(current, now) + interval;
+      long wait = next - now - tolerance;
+      if (wait > 0) {
+        return wait;
+      }
+      if (full.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,12 @@
+package com.github.kaheero.admission;
+
+/**
+ * Admission classes, in the order they are shed: searches and listings first, writes last.
+ */
+public enum TrafficClass {
+
+  SEARCH,
+  READ,
+  WRITE
+
+}
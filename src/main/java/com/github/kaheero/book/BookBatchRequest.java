@@ -0,0 +1,31 @@
+package com.github.kaheero.book;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchRequest {
+
+  public static final int MAX_KEYS = 1000;
+
+  @Builder.Default
+  @NotNull
+  @Size(max = MAX_KEYS)
+  private List<@NotNull Long> ids = new ArrayList<>();
+
+  @Builder.Default
+  @NotNull
+  @Size(max = MAX_KEYS)
+  private List<@NotEmpty String> isbns = new ArrayList<>();
+
+}
@@ -0,0 +1,40 @@
+package com.github.kaheero.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry per requested key, in request order, duplicates included.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchResult {
+
+  private List<Lookup> ids;
+
+  private List<Lookup> isbns;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Lookup {
+
+    private Long id;
+
+    private String isbn;
+
+    private boolean found;
+
+    private BookDTO book;
+
+  }
+
+}
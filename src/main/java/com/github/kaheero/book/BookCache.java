@@ -0,0 +1,232 @@
+package com.github.kaheero.book;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.kaheero.routing.ReadYourWrites;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache in front of the id and isbn lookups. Loads run inside the cache's atomic
+ * compute, so an eviction issued after a write commits cannot be overwritten by a load that read
+ * the old row. Loads may be served by a replica that has not applied that write yet, so a key
+ * evicted within the read-your-writes window is loaded without being kept. Callers always get
+ * their own copy of the cached book.
+ */
+@Component
+public class BookCache implements MeterBinder {
+
+  private final Cache<Long, BookEntity> byId;
+  private final Cache<String, BookEntity> byIsbn;
+  private final Cache<String, Long> idsByIsbn;
+  private final Cache<Long, Boolean> writtenIds;
+  private final Cache<String, Boolean> writtenIsbns;
+  private final AtomicLong evictions = new AtomicLong();
+  private final Set<Long> loadingIds = ConcurrentHashMap.newKeySet();
+  private final Set<String> loadingIsbns = ConcurrentHashMap.newKeySet();
+  private final LongAdder coalescedIds = new LongAdder();
+  private final LongAdder coalescedIsbns = new LongAdder();
+
+  @Autowired
+  public BookCache(
+      @Value("${library.books.cache.ttl:PT10M}") Duration ttl,
+      @Value("${library.books.cache.maximum-size:10000}") long maximumSize,
+      @Value("${library.books.cache.isbn-ids.maximum-size:100000}") long maximumIsbnIds,
+      ObjectProvider<ReadYourWrites> readYourWrites) {
+    this(ttl, maximumSize, maximumIsbnIds, ReadYourWrites.windowOf(readYourWrites));
+  }
+
+  BookCache(Duration ttl, long maximumSize, long maximumIsbnIds, Duration window) {
+    this.byId = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    this.byIsbn = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    this.idsByIsbn = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maximumIsbnIds)
+        .recordStats()
+        .build();
+    this.writtenIds = Caffeine.newBuilder()
+        .expireAfterWrite(window)
+        .build();
+    this.writtenIsbns = Caffeine.newBuilder()
+        .expireAfterWrite(window)
+        .build();
+  }
+
+  /**
+   * Concurrent misses on the same id share one load: the others wait on the cache's compute for
+   * that key. Arrivals during a load are counted as coalesced.
+   */
+  public Optional<BookEntity> getById(Long id, Function<Long, Optional<BookEntity>> loader) {
+    return get(byId, writtenIds, id, loader, loadingIds, coalescedIds);
+  }
+
+  /**
+   * No book has a missing isbn, so a {@code null} or empty one is answered without a lookup;
+   * Caffeine rejects {@code null} keys.
+   */
+  public Optional<BookEntity> getByIsbn(String isbn,
+      Function<String, Optional<BookEntity>> loader) {
+    if (isMissing(isbn)) {
+      return Optional.empty();
+    }
+    return get(byIsbn, writtenIsbns, isbn, loader, loadingIsbns, coalescedIsbns);
+  }
+
+  /**
+   * The id behind an isbn, for callers that only need a reference to the book. A book already
+   * cached by isbn answers directly; otherwise only the id is loaded and kept, which is far smaller
+   * than the book. A {@code null} or empty isbn finds nothing, as in {@link #getByIsbn}.
+   */
+  public Optional<Long> getIdByIsbn(String isbn, Function<String, Optional<Long>> loader) {
+    if (isMissing(isbn)) {
+      return Optional.empty();
+    }
+    BookEntity cached = byIsbn.getIfPresent(isbn);
+    if (Objects.nonNull(cached)) {
+      return Optional.of(cached.getId());
+    }
+    return Optional.ofNullable(
+        fill(idsByIsbn, writtenIsbns, isbn, missing -> loader.apply(missing).orElse(null)));
+  }
+
+  /**
+   * Bulk variant of {@link #getById}: the misses are loaded with a single call. A bulk load cannot
+   * run inside per-key computes, so each book is put in its key's own compute, and only if nothing
+   * was evicted since the load started: an eviction that comes later waits for that compute and
+   * removes the book again.
+   */
+  public Map<Long, BookEntity> getAllById(Collection<Long> ids,
+      Function<Collection<Long>, List<BookEntity>> loader) {
+    return getAll(byId, writtenIds, ids, loader, BookEntity::getId);
+  }
+
+  public Map<String, BookEntity> getAllByIsbn(Collection<String> isbns,
+      Function<Collection<String>, List<BookEntity>> loader) {
+    return getAll(byIsbn, writtenIsbns, isbns, loader, BookEntity::getIsbn);
+  }
+
+  public void evict(BookEntity book) {
+    if (Objects.nonNull(book.getId())) {
+      writtenIds.put(book.getId(), Boolean.TRUE);
+    }
+    if (Objects.nonNull(book.getIsbn())) {
+      writtenIsbns.put(book.getIsbn(), Boolean.TRUE);
+    }
+    evictions.incrementAndGet();
+    if (Objects.nonNull(book.getId())) {
+      BookEntity cached = byId.getIfPresent(book.getId());
+      if (Objects.nonNull(cached) && Objects.nonNull(cached.getIsbn())) {
+        writtenIsbns.put(cached.getIsbn(), Boolean.TRUE);
+        byIsbn.invalidate(cached.getIsbn());
+        idsByIsbn.invalidate(cached.getIsbn());
+      }
+      byId.invalidate(book.getId());
+    }
+    if (Objects.nonNull(book.getIsbn())) {
+      byIsbn.invalidate(book.getIsbn());
+      idsByIsbn.invalidate(book.getIsbn());
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, byId, "books.byId");
+    CaffeineCacheMetrics.monitor(registry, byIsbn, "books.byIsbn");
+    CaffeineCacheMetrics.monitor(registry, idsByIsbn, "books.idsByIsbn");
+    FunctionCounter.builder("books.coalesced", coalescedIds, LongAdder::sum)
+        .tag("operation", "byId")
+        .register(registry);
+    FunctionCounter.builder("books.coalesced", coalescedIsbns, LongAdder::sum)
+        .tag("operation", "byIsbn")
+        .register(registry);
+  }
+
+  private static <K> Optional<BookEntity> get(Cache<K, BookEntity> cache,
+      Cache<K, Boolean> written, K key, Function<K, Optional<BookEntity>> loader, Set<K> loading,
+      LongAdder coalesced) {
+    if (loading.contains(key)) {
+      coalesced.increment();
+    }
+    return Optional.ofNullable(fill(cache, written, key, missing -> {
+      loading.add(missing);
+      try {
+        return loader.apply(missing).orElse(null);
+      } finally {
+        loading.remove(missing);
+      }
+    })).map(BookCache::copy);
+  }
+
+  /**
+   * Loads the key inside the cache's compute and keeps the value unless the key was written within
+   * the window; the value is returned either way.
+   */
+  private static <K, V> V fill(Cache<K, V> cache, Cache<K, Boolean> written, K key,
+      Function<K, V> loader) {
+    AtomicReference<V> loaded = new AtomicReference<>();
+    V value = cache.get(key, missing -> {
+      loaded.set(loader.apply(missing));
+      return Objects.isNull(written.getIfPresent(missing)) ? loaded.get() : null;
+    });
+    return Objects.nonNull(value) ? value : loaded.get();
+  }
+
+  private <K> Map<K, BookEntity> getAll(Cache<K, BookEntity> cache, Cache<K, Boolean> written,
+      Collection<K> keys, Function<Collection<K>, List<BookEntity>> loader,
+      Function<BookEntity, K> keyOf) {
+    Map<K, BookEntity> found = new HashMap<>(cache.getAllPresent(keys));
+    Set<K> missing = new LinkedHashSet<>(keys);
+    missing.removeAll(found.keySet());
+    if (!missing.isEmpty()) {
+      long seen = evictions.get();
+      Map<K, BookEntity> loaded = new HashMap<>();
+      loader.apply(new ArrayList<>(missing))
+          .forEach(book -> loaded.put(keyOf.apply(book), book));
+      loaded.forEach((key, book) -> cache.asMap().computeIfAbsent(key,
+          absent -> evictions.get() == seen && Objects.isNull(written.getIfPresent(absent))
+              ? book
+              : null));
+      found.putAll(loaded);
+    }
+    found.replaceAll((key, book) -> copy(book));
+    return found;
+  }
+
+  private static boolean isMissing(String isbn) {
+    return Objects.isNull(isbn) || isbn.isEmpty();
+  }
+
+  private static BookEntity copy(BookEntity book) {
+    return book.toBuilder().build();
+  }
+
+}
@@ -1,56 +1,236 @@
 package com.github.kaheero.book;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.kaheero.admission.AdmissionClass;
+import com.github.kaheero.admission.TrafficClass;
+import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.pagination.CountMode;
+import com.github.kaheero.pagination.CursorPage;
+import com.github.kaheero.pagination.Cursors;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/books")
 public class BookController {
 
+  private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
   private final BookService service;
-  private final ModelMapper mapper;
+  private final BookPageCache pageCache;
+  private final BookMapper mapper;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+
+  @Value("${library.books.import.batch-size:1000}")
+  private int importBatchSize;
 
+  /**
+   * Listings are served from {@link BookPageCache} as already serialized bytes, gzip encoded when
+   * the client accepts it, so repeated queries skip the database, Jackson and the compressor. Each
+   * encoding is a distinct representation and carries its own entity tag.
+   */
   @GetMapping
-  @ResponseStatus(HttpStatus.PARTIAL_CONTENT)
-  public Page<BookDTO> findBooks(BookDTO bookDTO, Pageable pageRequest){
-    BookEntity bookEntity = mapper.map(bookDTO, BookEntity.class);
-    Page<BookEntity> result = service.find(bookEntity, pageRequest);
-    List<BookDTO> books = result.getContent()
-            .stream()
-            .map(entity -> mapper.map(entity, BookDTO.class))
-            .collect(Collectors.toList());
-    return new PageImpl<>(books, pageRequest, result.getTotalElements());
+  @AdmissionClass(TrafficClass.SEARCH)
+  public ResponseEntity<byte[]> findBooks(BookDTO bookDTO, Pageable pageRequest,
+      @RequestParam(defaultValue = "EXACT") CountMode count, WebRequest request) {
+    BookEntity bookEntity = mapper.toEntity(bookDTO);
+    BookPageCache.Rendered page = pageCache.get(
+        BookPageCache.key(bookEntity, pageRequest, count),
+        () -> render(bookEntity, pageRequest, count));
+    boolean gzip = Objects.nonNull(page.getGzip())
+        && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    String eTag = gzip ? BookETags.gzip(page.getETag()) : page.getETag();
+    if (request.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(eTag)
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+        .eTag(eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      pageCache.compressed(page);
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzip());
+    }
+    return response.body(page.getIdentity());
+  }
+
+  @GetMapping(params = "cursor")
+  @AdmissionClass(TrafficClass.SEARCH)
+  public CursorPage<BookDTO> findBooksAfterCursor(BookDTO bookDTO, @RequestParam String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+    }
+    BookEntity bookEntity = mapper.toEntity(bookDTO);
+    Slice<BookEntity> result = service.findAfter(bookEntity, Cursors.decode(cursor), size);
+    List<BookEntity> content = result.getContent();
+    String next = result.hasNext()
+        ? Cursors.encode(content.get(content.size() - 1).getId())
+        : null;
+    return new CursorPage<>(mapper.toDtos(content), next);
   }
 
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public BookDTO createBook(@RequestBody @Valid BookDTO bookDTO) {
-    BookEntity entity = mapper.map(bookDTO, BookEntity.class);
-    return mapper.map(service.save(entity), BookDTO.class);
+    BookEntity entity = mapper.toEntity(bookDTO);
+    return mapper.toDto(service.save(entity));
+  }
+
+  /**
+   * Resolves up to {@value BookBatchRequest#MAX_KEYS} ids and isbns at once: cache hits are served
+   * directly and the misses of each kind are loaded with one {@code IN} query.
+   */
+  @PostMapping(path = "/_batch")
+  @AdmissionClass(TrafficClass.SEARCH)
+  public BookBatchResult findBatch(@RequestBody @Valid BookBatchRequest request) {
+    Map<Long, BookEntity> byId = request.getIds().isEmpty()
+        ? Collections.emptyMap()
+        : service.getBooksByIds(request.getIds());
+    Map<String, BookEntity> byIsbn = request.getIsbns().isEmpty()
+        ? Collections.emptyMap()
+        : service.getBooksByIsbns(request.getIsbns());
+    return BookBatchResult.builder()
+        .ids(request.getIds().stream()
+            .map(id -> lookup(byId.get(id)).id(id).build())
+            .collect(Collectors.toList()))
+        .isbns(request.getIsbns().stream()
+            .map(isbn -> lookup(byIsbn.get(isbn)).isbn(isbn).build())
+            .collect(Collectors.toList()))
+        .build();
+  }
+
+  @PostMapping(path = "/_import",
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public BookImportResult importBooks(InputStream body) throws IOException {
+    long start = System.nanoTime();
+    long received = 0;
+    long invalid = 0;
+    long imported = 0;
+    List<BookEntity> batch = new ArrayList<>(importBatchSize);
+    try (MappingIterator<BookDTO> books = objectMapper.readerFor(BookDTO.class).readValues(body)) {
+      while (books.hasNextValue()) {
+        BookDTO bookDTO = books.nextValue();
+        received++;
+        if (!validator.validate(bookDTO).isEmpty()) {
+          invalid++;
+          continue;
+        }
+        BookEntity entity = mapper.toEntity(bookDTO);
+        entity.setId(null);
+        batch.add(entity);
+        if (batch.size() == importBatchSize) {
+          imported += service.saveAll(batch).size();
+          batch.clear();
+        }
+      }
+    } catch (JsonProcessingException exception) {
+      throw new BusinessException(String.format(
+          "invalid book at position %d, %d books were imported", received + 1, imported));
+    }
+    if (!batch.isEmpty()) {
+      imported += service.saveAll(batch).size();
+    }
+    long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+    return BookImportResult.builder()
+        .received(received)
+        .imported(imported)
+        .duplicated(received - invalid - imported)
+        .invalid(invalid)
+        .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+        .rowsPerSecond(imported * TimeUnit.SECONDS.toNanos(1) / elapsedNanos)
+        .build();
+  }
+
+  @GetMapping(path = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @AdmissionClass(TrafficClass.SEARCH)
+  public ResponseEntity<StreamingResponseBody> exportBooks() {
+    StreamingResponseBody body = out -> {
+      ObjectWriter writer = objectMapper.writerFor(BookDTO.class)
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+        generator.setRootValueSeparator(null);
+        service.export(book -> {
+          try {
+            writer.writeValue(generator, mapper.toDto(book));
+            generator.writeRaw('\n');
+          } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
+  /**
+   * Conditional requests are answered from the version and timestamp alone; only a miss loads and
+   * serializes the book.
+   */
   @GetMapping(path = "/{id}")
-  public BookDTO getBookById(@PathVariable Long id) {
+  public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, WebRequest request) {
+    if (Objects.nonNull(request.getHeader(HttpHeaders.IF_NONE_MATCH))
+        || Objects.nonNull(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE))) {
+      BookVersion version = service.getBookVersion(id)
+          .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+      long lastModified = Objects.isNull(version.getLastModified())
+          ? -1
+          : version.getLastModified().toEpochMilli();
+      if (request.checkNotModified(BookETags.of(version.getVersion()), lastModified)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+      }
+    }
     return service.getBookById(id)
-        .map(book -> mapper.map(book, BookDTO.class))
+        .map(this::withValidators)
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
   }
 
@@ -62,14 +242,78 @@ public class BookController {
     service.delete(bookEntity);
   }
 
+  /**
+   * With {@code If-Match} the update only applies to the version the client has seen; the
+   * version check itself happens in the database update, so a stale cache cannot let it through.
+   */
   @PutMapping(path = "/{id}")
-  @ResponseStatus(HttpStatus.OK)
-  public BookDTO updateBookById(@PathVariable Long id, @RequestBody BookDTO bookDTO) {
-    return service.getBookById(id).map(book -> {
-          book.setAuthor(bookDTO.getAuthor());
-          book.setTitle(bookDTO.getTitle());
-          return mapper.map(service.update(book), BookDTO.class);
-        }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+  public ResponseEntity<BookDTO> updateBookById(@PathVariable Long id, @RequestBody BookDTO bookDTO,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    BookEntity book = service.getBookById(id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    if (Objects.nonNull(ifMatch) && Objects.nonNull(BookETags.version(ifMatch))) {
+      book.setVersion(BookETags.version(ifMatch));
+    }
+    book.setAuthor(bookDTO.getAuthor());
+    book.setTitle(bookDTO.getTitle());
+    try {
+      return withValidators(service.update(book));
+    } catch (OptimisticLockingFailureException exception) {
+      throw new ResponseStatusException(
+          Objects.isNull(ifMatch) ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED,
+          "book was modified by another request");
+    }
+  }
+
+  private BookBatchResult.Lookup.LookupBuilder lookup(BookEntity book) {
+    return BookBatchResult.Lookup.builder()
+        .found(Objects.nonNull(book))
+        .book(Objects.isNull(book) ? null : mapper.toDto(book));
+  }
+
+  private BookPageCache.Response render(BookEntity bookEntity, Pageable pageRequest,
+      CountMode count) {
+    Slice<BookEntity> result;
+    if (count == CountMode.NONE) {
+      result = service.findSlice(bookEntity, pageRequest);
+    } else if (count == CountMode.ESTIMATED) {
+      result = service.findWithEstimatedTotal(bookEntity, pageRequest);
+    } else {
+      result = service.find(bookEntity, pageRequest);
+    }
+    List<BookDTO> books = mapper.toDtos(result.getContent());
+    Slice<BookDTO> body = count == CountMode.NONE
+        ? new SliceImpl<>(books, pageRequest, result.hasNext())
+        : new PageImpl<>(books, pageRequest, ((Page<BookEntity>) result).getTotalElements());
+    try {
+      return new BookPageCache.Response(BookETags.of(result), objectMapper.writeValueAsBytes(body));
+    } catch (JsonProcessingException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (Objects.isNull(acceptEncoding)) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+        return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  private ResponseEntity<BookDTO> withValidators(BookEntity book) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (Objects.nonNull(book.getVersion())) {
+      response.eTag(BookETags.of(book.getVersion()));
+    }
+    if (Objects.nonNull(book.getLastModified())) {
+      response.lastModified(book.getLastModified());
+    }
+    return response.body(mapper.toDto(book));
   }
 
 }
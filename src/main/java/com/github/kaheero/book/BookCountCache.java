@@ -0,0 +1,86 @@
+package com.github.kaheero.book;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.kaheero.routing.ReadYourWrites;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Totals for {@code count=ESTIMATED} listings, keyed by the case-insensitive filter. Entries expire
+ * after {@code library.books.count-cache.ttl} and are dropped on every catalog write. A total
+ * counted while a write happened, or within the read-your-writes window after one, may come from a
+ * replica that has not applied it yet and is returned without being kept.
+ */
+@Component
+public class BookCountCache implements MeterBinder {
+
+  private final Cache<List<String>, Long> totals;
+  private final long windowNanos;
+  private final AtomicLong generation = new AtomicLong();
+  private volatile long settledAt = System.nanoTime();
+
+  @Autowired
+  public BookCountCache(
+      @Value("${library.books.count-cache.ttl:PT1M}") Duration ttl,
+      @Value("${library.books.count-cache.maximum-size:10000}") long maximumSize,
+      ObjectProvider<ReadYourWrites> readYourWrites) {
+    this(ttl, maximumSize, ReadYourWrites.windowOf(readYourWrites));
+  }
+
+  BookCountCache(Duration ttl, long maximumSize, Duration window) {
+    this.totals = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    this.windowNanos = window.toNanos();
+  }
+
+  public long get(BookEntity probe, LongSupplier counter) {
+    AtomicLong counted = new AtomicLong();
+    Long total = totals.get(key(probe), key -> {
+      long current = generation.get();
+      counted.set(counter.getAsLong());
+      return generation.get() == current && System.nanoTime() - settledAt >= 0
+          ? counted.get()
+          : null;
+    });
+    return Objects.nonNull(total) ? total : counted.get();
+  }
+
+  public void invalidate() {
+    settledAt = System.nanoTime() + windowNanos;
+    generation.incrementAndGet();
+    totals.invalidateAll();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, totals, "books.counts");
+  }
+
+  private static List<String> key(BookEntity probe) {
+    return Arrays.asList(
+        normalize(probe.getTitle()),
+        normalize(probe.getAuthor()),
+        normalize(probe.getIsbn()));
+  }
+
+  private static String normalize(String value) {
+    return Objects.isNull(value) ? null : value.toLowerCase(Locale.ROOT);
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.github.kaheero.book;
+
+import java.util.Objects;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Strong entity tags for books. A single book is tagged with its version. A page is tagged with
+ * the ids and versions of its rows plus its total, so it changes whenever a row on it is edited,
+ * enters or leaves it, without keeping any catalog-wide revision.
+ */
+final class BookETags {
+
+  private BookETags() {
+  }
+
+  static String of(Long version) {
+    return "\"" + version + "\"";
+  }
+
+  static String of(Slice<BookEntity> slice) {
+    long hash = 1125899906842597L;
+    for (BookEntity book : slice.getContent()) {
+      hash = 31 * hash + book.getId();
+      hash = 31 * hash + Objects.hashCode(book.getVersion());
+    }
+    hash = 31 * hash + (slice instanceof Page ? ((Page<?>) slice).getTotalElements() : -1);
+    hash = 31 * hash + (slice.hasNext() ? 1 : 0);
+    return "\"" + Long.toHexString(hash) + "\"";
+  }
+
+  /**
+   * The tag of the gzip encoding of a representation tagged {@code eTag}: a strong tag identifies
+   * the bytes on the wire, so the two encodings must not share one.
+   */
+  static String gzip(String eTag) {
+    return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+  }
+
+  /**
+   * The version named by an {@code If-Match} header, {@code null} for {@code *}, or {@code -1} for
+   * anything no book can match (If-Match compares strongly, so weak tags never match).
+   */
+  static Long version(String ifMatch) {
+    String tag = ifMatch.trim();
+    if ("*".equals(tag)) {
+      return null;
+    }
+    if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+      return -1L;
+    }
+    try {
+      return Long.valueOf(tag.substring(1, tag.length() - 1));
+    } catch (NumberFormatException exception) {
+      return -1L;
+    }
+  }
+
+}
@@ -1,36 +1,72 @@
 package com.github.kaheero.book;
 
+import java.time.Instant;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table
+@Table(uniqueConstraints = @UniqueConstraint(name = BookEntity.ISBN_CONSTRAINT,
+    columnNames = "isbn"))
+@Indexed
 public class BookEntity {
 
+  public static final int ID_ALLOCATION_SIZE = 50;
+  public static final String ISBN_CONSTRAINT = "uk_book_isbn";
+  /**
+   * The foreign key from loans to their book, which keeps a book with loans from being deleted.
+   */
+  public static final String LOAN_CONSTRAINT = "fk_loan_book";
+
   @Id
   @Column
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_sequence")
+  @SequenceGenerator(name = "book_sequence", sequenceName = "book_sequence",
+      allocationSize = BookEntity.ID_ALLOCATION_SIZE)
+  @GenericField(name = "id_sort", sortable = Sortable.YES)
   private Long id;
 
   @Column
+  @FullTextField(analyzer = BookSearchAnalysisConfigurer.NGRAM)
+  @KeywordField(name = "title_sort", sortable = Sortable.YES)
   private String title;
 
   @Column
+  @FullTextField(analyzer = BookSearchAnalysisConfigurer.NGRAM)
+  @KeywordField(name = "author_sort", sortable = Sortable.YES)
   private String author;
 
   @Column
+  @FullTextField(analyzer = BookSearchAnalysisConfigurer.NGRAM)
+  @KeywordField(name = "isbn_sort", sortable = Sortable.YES)
   private String isbn;
 
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
+  @UpdateTimestamp
+  @Column
+  private Instant lastModified;
+
 }
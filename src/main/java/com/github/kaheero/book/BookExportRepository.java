@@ -0,0 +1,13 @@
+package com.github.kaheero.book;
+
+import java.util.function.Consumer;
+
+public interface BookExportRepository {
+
+  /**
+   * Hands every book to {@code action} in id order while reading them, so the caller decides
+   * what is kept in memory.
+   */
+  void forEachBook(Consumer<BookEntity> action);
+
+}
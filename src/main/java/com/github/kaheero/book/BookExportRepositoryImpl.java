@@ -0,0 +1,44 @@
+package com.github.kaheero.book;
+
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the catalog through a forward-only, read-only JDBC cursor with a fixed fetch size and no
+ * persistence context. Drivers such as PostgreSQL only honour the fetch size inside a transaction,
+ * hence the read-only one.
+ */
+public class BookExportRepositoryImpl implements BookExportRepository {
+
+  private static final String SELECT_ALL =
+      "select id, title, author, isbn from book_entity order by id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public BookExportRepositoryImpl(DataSource dataSource,
+      @Value("${library.books.export.fetch-size:1000}") int fetchSize) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(fetchSize);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void forEachBook(Consumer<BookEntity> action) {
+    jdbcTemplate.query(
+        connection -> connection.prepareStatement(SELECT_ALL,
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY),
+        resultSet -> {
+          action.accept(BookEntity.builder()
+              .id(resultSet.getLong(1))
+              .title(resultSet.getString(2))
+              .author(resultSet.getString(3))
+              .isbn(resultSet.getString(4))
+              .build());
+        });
+  }
+
+}
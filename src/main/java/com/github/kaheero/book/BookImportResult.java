@@ -0,0 +1,26 @@
+package com.github.kaheero.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResult {
+
+  private long received;
+
+  private long imported;
+
+  private long duplicated;
+
+  private long invalid;
+
+  private long elapsedMillis;
+
+  private long rowsPerSecond;
+
+}
@@ -0,0 +1,67 @@
+package com.github.kaheero.book;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.engine.reporting.FailureHandler;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationStrategy;
+import org.hibernate.search.mapper.orm.cfg.HibernateOrmMapperSettings;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indexes like the {@code async} strategy: a write commits without waiting for Lucene. The commit
+ * already invalidated {@link BookPageCache}, but a listing served from the index before the index
+ * work is applied would cache the old results under the new generation, so the page cache is
+ * invalidated a second time once that work completes. A strategy set explicitly in the JPA
+ * properties takes precedence.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookIndexingSynchronization implements AutomaticIndexingSynchronizationStrategy,
+    HibernatePropertiesCustomizer {
+
+  private final BookPageCache pageCache;
+
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.putIfAbsent(
+        HibernateOrmMapperSettings.AUTOMATIC_INDEXING_SYNCHRONIZATION_STRATEGY, this);
+  }
+
+  @Override
+  public void apply(AutomaticIndexingSynchronizationConfigurationContext context) {
+    AutomaticIndexingSynchronizationStrategy.async().apply(
+        new AutomaticIndexingSynchronizationConfigurationContext() {
+          @Override
+          public void documentCommitStrategy(DocumentCommitStrategy strategy) {
+            context.documentCommitStrategy(strategy);
+          }
+
+          @Override
+          public void documentRefreshStrategy(DocumentRefreshStrategy strategy) {
+            context.documentRefreshStrategy(strategy);
+          }
+
+          @Override
+          public void indexingFutureHandler(
+              Consumer<CompletableFuture<SearchIndexingPlanExecutionReport>> handler) {
+            context.indexingFutureHandler(future -> {
+              handler.accept(future);
+              future.whenComplete((report, failure) -> pageCache.invalidate());
+            });
+          }
+
+          @Override
+          public FailureHandler failureHandler() {
+            return context.failureHandler();
+          }
+        });
+  }
+
+}
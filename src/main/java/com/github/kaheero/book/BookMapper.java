@@ -0,0 +1,25 @@
+package com.github.kaheero.book;
+
+import java.util.List;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface BookMapper {
+
+  BookDTO toDto(BookEntity entity);
+
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "lastModified", ignore = true)
+  BookEntity toEntity(BookDTO dto);
+
+  List<BookDTO> toDtos(List<BookEntity> entities);
+
+  BookDTO toDto(BookRow row);
+
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "lastModified", ignore = true)
+  @Mapping(target = "inserting", ignore = true)
+  BookRow toRow(BookDTO dto);
+
+}
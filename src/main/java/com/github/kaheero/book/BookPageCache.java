@@ -0,0 +1,180 @@
+package com.github.kaheero.book;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.kaheero.pagination.CountMode;
+import com.github.kaheero.routing.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listing responses kept as the bytes that go on the wire, identity and gzip, keyed by filter,
+ * page, sort and count mode. Entries are weighed by their size and admitted by Caffeine's
+ * frequency sketch, so only hot queries stay resident. Every catalog write bumps a generation;
+ * an entry rendered under an older generation is never served, even if its load raced the write.
+ * Pages rendered within the read-your-writes window after a write may come from a replica that
+ * has not applied it yet, so they are served but not kept.
+ */
+@Component
+public class BookPageCache implements MeterBinder {
+
+  private final Cache<List<Object>, Rendered> pages;
+  private final int compressionThreshold;
+  private final long windowNanos;
+  private final AtomicLong generation = new AtomicLong();
+  private volatile long settledAt = System.nanoTime();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong bytesNotSerialized = new AtomicLong();
+  private final AtomicLong bytesNotSent = new AtomicLong();
+
+  @Autowired
+  public BookPageCache(
+      @Value("${library.books.page-cache.ttl:PT1M}") Duration ttl,
+      @Value("${library.books.page-cache.maximum-bytes:16777216}") long maximumBytes,
+      @Value("${library.books.page-cache.compression-threshold:1024}") int compressionThreshold,
+      ObjectProvider<ReadYourWrites> readYourWrites) {
+    this(ttl, maximumBytes, compressionThreshold, ReadYourWrites.windowOf(readYourWrites));
+  }
+
+  BookPageCache(Duration ttl, long maximumBytes, int compressionThreshold, Duration window) {
+    this.pages = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumWeight(maximumBytes)
+        .weigher((List<Object> key, Rendered page) -> page.weight())
+        .build();
+    this.compressionThreshold = compressionThreshold;
+    this.windowNanos = window.toNanos();
+  }
+
+  /**
+   * Returns the cached rendering for the key, or runs the loader, which queries and serializes
+   * the page, and keeps its result unless a write happened meanwhile or within the window.
+   */
+  public Rendered get(List<Object> key, Supplier<Response> loader) {
+    long current = generation.get();
+    Rendered cached = pages.getIfPresent(key);
+    if (Objects.nonNull(cached) && cached.generation == current) {
+      hits.incrementAndGet();
+      bytesNotSerialized.addAndGet(cached.identity.length);
+      return cached;
+    }
+    misses.incrementAndGet();
+    Response response = loader.get();
+    Rendered rendered = new Rendered(current, response.getETag(), response.getBody(),
+        response.getBody().length >= compressionThreshold ? gzip(response.getBody()) : null);
+    if (generation.get() == current && System.nanoTime() - settledAt >= 0) {
+      pages.put(key, rendered);
+    }
+    return rendered;
+  }
+
+  public void invalidate() {
+    settledAt = System.nanoTime() + windowNanos;
+    generation.incrementAndGet();
+    pages.invalidateAll();
+  }
+
+  /**
+   * Records that the gzip rendering went out instead of the identity one.
+   */
+  public void compressed(Rendered page) {
+    bytesNotSent.addAndGet(page.identity.length - page.gzip.length);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("books.pages.cache.requests", hits, AtomicLong::get)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("books.pages.cache.requests", misses, AtomicLong::get)
+        .tag("result", "miss")
+        .register(registry);
+    Gauge.builder("books.pages.cache.hit.ratio", this, BookPageCache::hitRatio)
+        .register(registry);
+    FunctionCounter.builder("books.pages.cache.saved", bytesNotSerialized, AtomicLong::get)
+        .tag("stage", "serialization")
+        .baseUnit("bytes")
+        .register(registry);
+    FunctionCounter.builder("books.pages.cache.saved", bytesNotSent, AtomicLong::get)
+        .tag("stage", "compression")
+        .baseUnit("bytes")
+        .register(registry);
+    Gauge.builder("books.pages.cache.size", pages, Cache::estimatedSize)
+        .register(registry);
+  }
+
+  public static List<Object> key(BookEntity probe, Pageable pageable, CountMode count) {
+    return Arrays.asList(probe.getTitle(), probe.getAuthor(), probe.getIsbn(),
+        pageable.isPaged() ? pageable.getPageNumber() : -1,
+        pageable.isPaged() ? pageable.getPageSize() : -1,
+        pageable.getSort().toString(), count);
+  }
+
+  double hitRatio() {
+    long total = hits.get() + misses.get();
+    return total == 0 ? 0 : (double) hits.get() / total;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+      out.write(bytes);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * What a loader produces: the entity tag and the serialized body.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Response {
+
+    private final String eTag;
+    private final byte[] body;
+
+  }
+
+  /**
+   * A page ready to be written. {@code gzip} is {@code null} for bodies under the compression
+   * threshold, which would not shrink enough to pay for the header.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Rendered {
+
+    private final long generation;
+    private final String eTag;
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    int weight() {
+      return identity.length + (Objects.isNull(gzip) ? 0 : gzip.length);
+    }
+
+  }
+
+}
@@ -0,0 +1,130 @@
+package com.github.kaheero.book;
+
+import com.github.kaheero.exceptions.BusinessException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.persistence.Query;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+/**
+ * JPQL for book filters, one string per shape: which of title, author and isbn are set, plus the
+ * sort. Strings are rendered once and memoized, so Hibernate parses each shape a single time and
+ * serves every later query from its plan cache; values are always bound as parameters. This
+ * replaces Query by Example, which walked the probe reflectively and built a new criteria tree on
+ * every call.
+ */
+final class BookQueries {
+
+  private static final String[] FIELDS = {"title", "author", "isbn"};
+  private static final Set<String> SORTABLE = Set.of("id", "title", "author", "isbn");
+  private static final ConcurrentMap<String, String> RENDERED = new ConcurrentHashMap<>();
+
+  private BookQueries() {
+  }
+
+  static String select(BookEntity probe, Sort sort) {
+    validate(sort);
+    int shape = shape(probe);
+    return RENDERED.computeIfAbsent("select:" + shape + ":" + sort,
+        key -> "select b from BookEntity b" + where(shape, null) + orderBy(sort));
+  }
+
+  static String count(BookEntity probe) {
+    int shape = shape(probe);
+    return RENDERED.computeIfAbsent("count:" + shape,
+        key -> "select count(b) from BookEntity b" + where(shape, null));
+  }
+
+  static String after(BookEntity probe, boolean hasCursor) {
+    int shape = shape(probe);
+    return RENDERED.computeIfAbsent("after:" + shape + ":" + hasCursor,
+        key -> "select b from BookEntity b" + where(shape, hasCursor ? "b.id > :afterId" : null)
+            + " order by b.id asc");
+  }
+
+  static <Q extends Query> Q bind(Q query, BookEntity probe) {
+    String[] values = values(probe);
+    for (int index = 0; index < FIELDS.length; index++) {
+      if (isSet(values[index])) {
+        query.setParameter(FIELDS[index], "%"
+            + EscapeCharacter.DEFAULT.escape(values[index].toLowerCase(Locale.ROOT)) + "%");
+      }
+    }
+    return query;
+  }
+
+  private static int shape(BookEntity probe) {
+    String[] values = values(probe);
+    int shape = 0;
+    for (int index = 0; index < FIELDS.length; index++) {
+      if (isSet(values[index])) {
+        shape |= 1 << index;
+      }
+    }
+    return shape;
+  }
+
+  private static String where(int shape, String extra) {
+    StringBuilder where = new StringBuilder();
+    for (int index = 0; index < FIELDS.length; index++) {
+      if ((shape & 1 << index) != 0) {
+        where.append(where.length() == 0 ? " where " : " and ")
+            .append("lower(b.").append(FIELDS[index]).append(") like :").append(FIELDS[index])
+            .append(" escape '").append(EscapeCharacter.DEFAULT.getEscapeCharacter()).append('\'');
+      }
+    }
+    if (Objects.nonNull(extra)) {
+      where.append(where.length() == 0 ? " where " : " and ").append(extra);
+    }
+    return where.toString();
+  }
+
+  /**
+   * The sort comes from the client and is part of the memo key, so only sorts on distinct sortable
+   * properties are accepted: that bounds the number of shapes and keeps repeated keys out of the
+   * JPQL.
+   */
+  private static void validate(Sort sort) {
+    Set<String> seen = new HashSet<>();
+    for (Sort.Order order : sort) {
+      if (!SORTABLE.contains(order.getProperty())) {
+        throw new BusinessException("books cannot be sorted by " + order.getProperty());
+      }
+      if (!seen.add(order.getProperty())) {
+        throw new BusinessException("books cannot be sorted by " + order.getProperty() + " twice");
+      }
+    }
+  }
+
+  private static String orderBy(Sort sort) {
+    if (sort.isUnsorted()) {
+      return "";
+    }
+    StringBuilder orderBy = new StringBuilder(" order by ");
+    boolean byId = false;
+    for (Sort.Order order : sort) {
+      String path = "b." + order.getProperty();
+      orderBy.append(order.isIgnoreCase() ? "lower(" + path + ")" : path)
+          .append(order.isAscending() ? " asc, " : " desc, ");
+      byId |= "id".equals(order.getProperty());
+    }
+    // a unique last key keeps offset pages stable when sort values repeat
+    return byId
+        ? orderBy.substring(0, orderBy.length() - 2)
+        : orderBy.append("b.id asc").toString();
+  }
+
+  private static String[] values(BookEntity probe) {
+    return new String[] {probe.getTitle(), probe.getAuthor(), probe.getIsbn()};
+  }
+
+  private static boolean isSet(String value) {
+    return Objects.nonNull(value) && !value.isEmpty();
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.github.kaheero.book;
+
+import com.github.kaheero.routing.ReadYourWrites;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Single flight for listing queries: while a query runs, identical ones wait for its result
+ * instead of running again. Only the leader opens the read-only transaction, so waiters never hold
+ * a connection, and no lock is held while the query runs. The result is shared between all
+ * callers and must not be modified. A caller pinned to the primary by {@link ReadYourWrites} only
+ * shares queries with other pinned callers, never a replica read that may miss its own write.
+ */
+@Component
+public class BookReadCoalescer implements MeterBinder {
+
+  private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+  private final TransactionOperations readOnlyTransaction;
+  private final ReadYourWrites readYourWrites;
+  private final LongAdder coalesced = new LongAdder();
+
+  @Autowired
+  public BookReadCoalescer(PlatformTransactionManager transactionManager,
+      ObjectProvider<ReadYourWrites> readYourWrites) {
+    this(readOnly(transactionManager), readYourWrites.getIfAvailable());
+  }
+
+  BookReadCoalescer(TransactionOperations readOnlyTransaction, ReadYourWrites readYourWrites) {
+    this.readOnlyTransaction = readOnlyTransaction;
+    this.readYourWrites = readYourWrites;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T execute(List<Object> key, Supplier<T> query) {
+    List<Object> flight = isPinnedToPrimary() ? primary(key) : key;
+    CompletableFuture<Object> running = inFlight.get(flight);
+    if (Objects.isNull(running)) {
+      CompletableFuture<Object> mine = new CompletableFuture<>();
+      running = inFlight.putIfAbsent(flight, mine);
+      if (Objects.isNull(running)) {
+        return lead(flight, mine, query);
+      }
+    }
+    coalesced.increment();
+    try {
+      return (T) running.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("books.coalesced", coalesced, LongAdder::sum)
+        .tag("operation", "find")
+        .register(registry);
+  }
+
+  private boolean isPinnedToPrimary() {
+    return Objects.nonNull(readYourWrites) && readYourWrites.isPinnedToPrimary();
+  }
+
+  private static List<Object> primary(List<Object> key) {
+    List<Object> flight = new ArrayList<>(key.size() + 1);
+    flight.addAll(key);
+    flight.add(ReadYourWrites.class);
+    return flight;
+  }
+
+  long coalesced() {
+    return coalesced.sum();
+  }
+
+  private <T> T lead(List<Object> key, CompletableFuture<Object> mine, Supplier<T> query) {
+    try {
+      T result = readOnlyTransaction.execute(status -> query.get());
+      mine.complete(result);
+      return result;
+    } catch (RuntimeException | Error exception) {
+      mine.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setReadOnly(true);
+    return template;
+  }
+
+}
@@ -1,16 +1,37 @@
 package com.github.kaheero.book;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface BookRepository extends JpaRepository<BookEntity, Long> {
-
-  boolean existsByIsbn(String isbn);
+public interface BookRepository extends JpaRepository<BookEntity, Long>, BookSearchRepository,
+    BookExportRepository {
 
   Optional<BookEntity> findById(Long id);
 
+  @Transactional(readOnly = true)
   Optional<BookEntity> findByIsbn(String isbn);
 
+  @Transactional(readOnly = true)
+  @Query("select b.id from BookEntity b where b.isbn = :isbn")
+  Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+
+  @Transactional(readOnly = true)
+  List<BookEntity> findByIsbnIn(Collection<String> isbns);
+
+  @Transactional(readOnly = true)
+  @Query("select b.version as version, b.lastModified as lastModified "
+      + "from BookEntity b where b.id = :id")
+  Optional<BookVersion> findVersionById(@Param("id") Long id);
+
+  @Query("select b.isbn from BookEntity b where b.isbn in :isbns")
+  Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
 }
@@ -0,0 +1,56 @@
+package com.github.kaheero.book;
+
+import java.time.Instant;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of the {@link BookEntity} table for the reactive profile. Ids come from the same
+ * sequence, so a row that already has one is flagged as new to get an insert instead of an update.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("book_entity")
+public class BookRow implements Persistable<Long> {
+
+  @Id
+  private Long id;
+
+  private String title;
+
+  private String author;
+
+  private String isbn;
+
+  @Version
+  private Long version;
+
+  private Instant lastModified;
+
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private boolean inserting;
+
+  @Override
+  public boolean isNew() {
+    return inserting;
+  }
+
+  public BookRow withNewId(Long id) {
+    return toBuilder().id(id).inserting(true).build();
+  }
+
+}
@@ -0,0 +1,26 @@
+package com.github.kaheero.book;
+
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.ngram.NGramTokenizerFactory;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * Trigram analysis for the book index. Every field value is split into overlapping 3-character
+ * grams, so a phrase of query grams matches exactly the values that contain the query text.
+ */
+public class BookSearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+  public static final String NGRAM = "ngram";
+  public static final int GRAM_SIZE = 3;
+
+  @Override
+  public void configure(LuceneAnalysisConfigurationContext context) {
+    context.analyzer(NGRAM).custom()
+        .tokenizer(NGramTokenizerFactory.class)
+        .param("minGramSize", String.valueOf(GRAM_SIZE))
+        .param("maxGramSize", String.valueOf(GRAM_SIZE))
+        .tokenFilter(LowerCaseFilterFactory.class);
+  }
+
+}
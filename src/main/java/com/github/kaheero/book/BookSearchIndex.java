@@ -0,0 +1,71 @@
+package com.github.kaheero.book;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the book index on startup and tells {@link BookService} when a query can be answered
+ * from it. Saves, updates and deletes are indexed by Hibernate Search as their transaction
+ * commits. The index sorts on the raw values, so ignore-case sorts stay on the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+
+  private static final Set<String> SORTABLE = Set.of("id", "title", "author", "isbn");
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private volatile boolean ready;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    ready = false;
+    Search.mapping(entityManagerFactory)
+        .scope(BookEntity.class)
+        .massIndexer()
+        .start()
+        .whenComplete((result, error) -> {
+          if (Objects.isNull(error)) {
+            ready = true;
+            log.info("Book search index ready");
+          } else {
+            log.error("Book search index rebuild failed, searches stay on the database", error);
+          }
+        });
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public boolean canSearch(BookEntity probe, Sort sort) {
+    if (!ready || !isSortable(sort)) {
+      return false;
+    }
+    List<String> terms = Stream.of(probe.getTitle(), probe.getAuthor(), probe.getIsbn())
+        .filter(Objects::nonNull)
+        .filter(term -> !term.isEmpty())
+        .collect(Collectors.toList());
+    return !terms.isEmpty() && terms.stream()
+        .allMatch(term -> term.length() >= BookSearchAnalysisConfigurer.GRAM_SIZE);
+  }
+
+  private boolean isSortable(Sort sort) {
+    return sort.stream()
+        .allMatch(order -> SORTABLE.contains(order.getProperty()) && !order.isIgnoreCase());
+  }
+
+}
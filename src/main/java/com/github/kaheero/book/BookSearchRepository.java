@@ -0,0 +1,24 @@
+package com.github.kaheero.book;
+
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface BookSearchRepository {
+
+  Page<BookEntity> search(BookEntity probe, Pageable pageable);
+
+  Slice<BookEntity> searchSlice(BookEntity probe, Pageable pageable);
+
+  List<BookEntity> searchAfter(BookEntity probe, Long afterId, int limit);
+
+  Slice<BookEntity> findSlice(BookEntity probe, Pageable pageable);
+
+  List<BookEntity> findAfter(BookEntity probe, Long afterId, int limit);
+
+  Page<BookEntity> findMatching(BookEntity probe, Pageable pageable);
+
+  long countMatching(BookEntity probe);
+
+}
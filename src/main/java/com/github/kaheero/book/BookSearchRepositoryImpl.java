@@ -0,0 +1,142 @@
+package com.github.kaheero.book;
+
+import java.util.List;
+import java.util.Objects;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import org.hibernate.search.engine.search.predicate.dsl.BooleanPredicateClausesStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.engine.search.sort.dsl.CompositeSortComponentsStep;
+import org.hibernate.search.engine.search.sort.dsl.SearchSortFactory;
+import org.hibernate.search.engine.search.sort.dsl.SortOrder;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+
+  static final String SORT_SUFFIX = "_sort";
+  static final String ID_SORT = "id" + SORT_SUFFIX;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Page<BookEntity> search(BookEntity probe, Pageable pageable) {
+    SearchResult<BookEntity> result = Search.session(entityManager)
+        .search(BookEntity.class)
+        .where(f -> f.bool(b -> matching(f, b, probe)))
+        .sort(f -> sort(f, pageable.getSort()))
+        .fetch(Math.toIntExact(pageable.getOffset()), pageable.getPageSize());
+    return new PageImpl<>(result.hits(), pageable, result.total().hitCount());
+  }
+
+  @Override
+  public Slice<BookEntity> searchSlice(BookEntity probe, Pageable pageable) {
+    List<BookEntity> books = Search.session(entityManager)
+        .search(BookEntity.class)
+        .where(f -> f.bool(b -> matching(f, b, probe)))
+        .sort(f -> sort(f, pageable.getSort()))
+        .fetchHits(Math.toIntExact(pageable.getOffset()), pageable.getPageSize() + 1);
+    return slice(books, pageable);
+  }
+
+  @Override
+  public List<BookEntity> searchAfter(BookEntity probe, Long afterId, int limit) {
+    return Search.session(entityManager)
+        .search(BookEntity.class)
+        .where(f -> f.bool(b -> {
+          matching(f, b, probe);
+          if (Objects.nonNull(afterId)) {
+            b.must(f.range().field(ID_SORT).greaterThan(afterId));
+          }
+        }))
+        .sort(f -> f.field(ID_SORT))
+        .fetchHits(limit);
+  }
+
+  @Override
+  public List<BookEntity> findAfter(BookEntity probe, Long afterId, int limit) {
+    TypedQuery<BookEntity> query = BookQueries.bind(entityManager.createQuery(
+        BookQueries.after(probe, Objects.nonNull(afterId)), BookEntity.class), probe);
+    if (Objects.nonNull(afterId)) {
+      query.setParameter("afterId", afterId);
+    }
+    return query.setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public Slice<BookEntity> findSlice(BookEntity probe, Pageable pageable) {
+    TypedQuery<BookEntity> query = select(probe, pageable.getSort());
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(query.getResultList());
+    }
+    List<BookEntity> books = query
+        .setFirstResult(Math.toIntExact(pageable.getOffset()))
+        .setMaxResults(pageable.getPageSize() + 1)
+        .getResultList();
+    return slice(books, pageable);
+  }
+
+  @Override
+  public Page<BookEntity> findMatching(BookEntity probe, Pageable pageable) {
+    TypedQuery<BookEntity> query = select(probe, pageable.getSort());
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(query.getResultList());
+    }
+    List<BookEntity> books = query
+        .setFirstResult(Math.toIntExact(pageable.getOffset()))
+        .setMaxResults(pageable.getPageSize())
+        .getResultList();
+    return PageableExecutionUtils.getPage(books, pageable, () -> countMatching(probe));
+  }
+
+  @Override
+  public long countMatching(BookEntity probe) {
+    return BookQueries.bind(entityManager.createQuery(BookQueries.count(probe), Long.class), probe)
+        .getSingleResult();
+  }
+
+  private TypedQuery<BookEntity> select(BookEntity probe, Sort sort) {
+    return BookQueries.bind(
+        entityManager.createQuery(BookQueries.select(probe, sort), BookEntity.class), probe);
+  }
+
+  private Slice<BookEntity> slice(List<BookEntity> books, Pageable pageable) {
+    boolean hasNext = books.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? books.subList(0, pageable.getPageSize()) : books, pageable,
+        hasNext);
+  }
+
+  private void matching(SearchPredicateFactory f, BooleanPredicateClausesStep<?> b,
+      BookEntity probe) {
+    b.must(f.matchAll());
+    contains(f, b, "title", probe.getTitle());
+    contains(f, b, "author", probe.getAuthor());
+    contains(f, b, "isbn", probe.getIsbn());
+  }
+
+  private void contains(SearchPredicateFactory f, BooleanPredicateClausesStep<?> b,
+      String field, String value) {
+    if (Objects.nonNull(value) && !value.isEmpty()) {
+      b.must(f.phrase().field(field).matching(value));
+    }
+  }
+
+  private CompositeSortComponentsStep<?> sort(SearchSortFactory f, Sort sort) {
+    CompositeSortComponentsStep<?> composite = f.composite();
+    sort.forEach(order -> composite.add(f.field(order.getProperty() + SORT_SUFFIX)
+        .order(order.isAscending() ? SortOrder.ASC : SortOrder.DESC)));
+    return composite.add(f.field(ID_SORT));
+  }
+
+}
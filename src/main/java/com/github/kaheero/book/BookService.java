@@ -1,21 +1,49 @@
 package com.github.kaheero.book;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface BookService {
 
   BookEntity save(BookEntity book);
 
+  List<BookEntity> saveAll(List<BookEntity> books);
+
   Optional<BookEntity> getBookById(Long id);
 
+  Map<Long, BookEntity> getBooksByIds(Collection<Long> ids);
+
+  Optional<BookVersion> getBookVersion(Long id);
+
   void delete(BookEntity bookEntity);
 
   BookEntity update(BookEntity bookEntity);
 
   Page<BookEntity> find(BookEntity bookEntity, Pageable pageable);
 
+  Slice<BookEntity> findSlice(BookEntity bookEntity, Pageable pageable);
+
+  Page<BookEntity> findWithEstimatedTotal(BookEntity bookEntity, Pageable pageable);
+
+  Slice<BookEntity> findAfter(BookEntity bookEntity, Long afterId, int size);
+
   Optional<BookEntity> getBookByIsbn(String isbn);
 
+  Optional<Long> getBookIdByIsbn(String isbn);
+
+  /**
+   * An uninitialized proxy for the book, enough to set an association without reading the row.
+   */
+  BookEntity getBookReference(Long id);
+
+  Map<String, BookEntity> getBooksByIsbns(Collection<String> isbns);
+
+  void export(Consumer<BookEntity> action);
+
 }
@@ -0,0 +1,14 @@
+package com.github.kaheero.book;
+
+import java.time.Instant;
+
+/**
+ * The two columns a conditional GET needs, read by primary key without loading the book.
+ */
+public interface BookVersion {
+
+  Long getVersion();
+
+  Instant getLastModified();
+
+}
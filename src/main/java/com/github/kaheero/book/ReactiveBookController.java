@@ -0,0 +1,83 @@
+package com.github.kaheero.book;
+
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Profile("reactive")
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/books")
+public class ReactiveBookController {
+
+  private final ReactiveBookService service;
+  private final BookMapper mapper;
+
+  @GetMapping
+  @ResponseStatus(HttpStatus.PARTIAL_CONTENT)
+  public Mono<Page<BookDTO>> findBooks(BookDTO bookDTO, Pageable pageRequest) {
+    return service.find(mapper.toRow(bookDTO), pageRequest)
+        .map(page -> page.map(mapper::toDto));
+  }
+
+  /**
+   * Streams every match as newline-delimited JSON. Rows are pulled from the database only as
+   * fast as the client reads them.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<BookDTO> streamBooks(BookDTO bookDTO, Sort sort) {
+    return service.stream(mapper.toRow(bookDTO), sort).map(mapper::toDto);
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<BookDTO> createBook(@RequestBody @Valid BookDTO bookDTO) {
+    return service.save(mapper.toRow(bookDTO)).map(mapper::toDto);
+  }
+
+  @GetMapping(path = "/{id}")
+  public Mono<BookDTO> getBookById(@PathVariable Long id) {
+    return service.getBookById(id)
+        .map(mapper::toDto)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+  }
+
+  @DeleteMapping(path = "/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public Mono<Void> deleteBookById(@PathVariable Long id) {
+    return service.getBookById(id)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+        .flatMap(service::delete);
+  }
+
+  @PutMapping(path = "/{id}")
+  @ResponseStatus(HttpStatus.OK)
+  public Mono<BookDTO> updateBookById(@PathVariable Long id, @RequestBody BookDTO bookDTO) {
+    return service.getBookById(id)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+        .flatMap(book -> {
+          book.setAuthor(bookDTO.getAuthor());
+          book.setTitle(bookDTO.getTitle());
+          return service.update(book);
+        })
+        .map(mapper::toDto);
+  }
+
+}
@@ -0,0 +1,19 @@
+package com.github.kaheero.book;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookRepository extends ReactiveSortingRepository<BookRow, Long>,
+    ReactiveBookSearchRepository {
+
+  Mono<BookRow> findByIsbn(String isbn);
+
+  /**
+   * Hibernate reads this sequence with the pooled-lo optimizer, so a value {@code v} reserves the
+   * block starting at {@code v}; taking {@code v} itself never collides with JPA inserts.
+   */
+  @Query("select next value for book_sequence")
+  Mono<Long> nextId();
+
+}
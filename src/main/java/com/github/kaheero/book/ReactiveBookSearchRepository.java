@@ -0,0 +1,16 @@
+package com.github.kaheero.book;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookSearchRepository {
+
+  Flux<BookRow> search(BookRow probe, Pageable pageable);
+
+  Flux<BookRow> search(BookRow probe, Sort sort);
+
+  Mono<Long> count(BookRow probe);
+
+}
@@ -0,0 +1,54 @@
+package com.github.kaheero.book;
+
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.dialect.Escaper;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ReactiveBookSearchRepositoryImpl implements ReactiveBookSearchRepository {
+
+  private final R2dbcEntityTemplate template;
+
+  @Override
+  public Flux<BookRow> search(BookRow probe, Pageable pageable) {
+    return template.select(BookRow.class)
+        .matching(Query.query(criteria(probe)).with(pageable))
+        .all();
+  }
+
+  @Override
+  public Flux<BookRow> search(BookRow probe, Sort sort) {
+    return template.select(BookRow.class)
+        .matching(Query.query(criteria(probe)).sort(sort))
+        .all();
+  }
+
+  @Override
+  public Mono<Long> count(BookRow probe) {
+    return template.count(Query.query(criteria(probe)), BookRow.class);
+  }
+
+  private Criteria criteria(BookRow probe) {
+    Criteria criteria = Criteria.empty();
+    criteria = containing(criteria, "title", probe.getTitle());
+    criteria = containing(criteria, "author", probe.getAuthor());
+    return containing(criteria, "isbn", probe.getIsbn());
+  }
+
+  private Criteria containing(Criteria criteria, String column, String value) {
+    if (Objects.isNull(value) || value.isEmpty()) {
+      return criteria;
+    }
+    return criteria.and(Criteria.where(column)
+        .like("%" + Escaper.DEFAULT.escape(value) + "%")
+        .ignoreCase(true));
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.github.kaheero.book;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookService {
+
+  Mono<BookRow> save(BookRow book);
+
+  Mono<BookRow> getBookById(Long id);
+
+  Mono<Void> delete(BookRow book);
+
+  Mono<BookRow> update(BookRow book);
+
+  Mono<Page<BookRow>> find(BookRow filter, Pageable pageable);
+
+  Flux<BookRow> stream(BookRow filter, Sort sort);
+
+  Mono<BookRow> getBookByIsbn(String isbn);
+
+}
@@ -0,0 +1,85 @@
+package com.github.kaheero.book;
+
+import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.exceptions.ConstraintViolations;
+import java.time.Instant;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Profile("reactive")
+@Service
+@AllArgsConstructor
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+  /**
+   * Rows a streaming search requests from the database at a time, so a slow client only holds
+   * this many rows in memory instead of the whole result.
+   */
+  static final int STREAM_PREFETCH = 256;
+
+  private final ReactiveBookRepository repository;
+
+  @Override
+  public Mono<BookRow> save(BookRow book) {
+    return repository.nextId()
+        .map(book::withNewId)
+        .doOnNext(row -> row.setLastModified(Instant.now()))
+        .flatMap(repository::save)
+        .onErrorMap(DataIntegrityViolationException.class, this::translate);
+  }
+
+  @Override
+  public Mono<BookRow> getBookById(Long id) {
+    return repository.findById(id);
+  }
+
+  @Override
+  public Mono<Void> delete(BookRow book) {
+    if (Objects.isNull(book) || Objects.isNull(book.getId())) {
+      return Mono.error(new IllegalArgumentException("Book and book id cant be null"));
+    }
+    return repository.delete(book);
+  }
+
+  @Override
+  public Mono<BookRow> update(BookRow book) {
+    if (Objects.isNull(book) || Objects.isNull(book.getId())) {
+      return Mono.error(new IllegalArgumentException("Book and book id cant be null"));
+    }
+    book.setLastModified(Instant.now());
+    return repository.save(book);
+  }
+
+  @Override
+  public Mono<Page<BookRow>> find(BookRow filter, Pageable pageable) {
+    return Mono.zip(repository.search(filter, pageable).collectList(), repository.count(filter))
+        .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+  }
+
+  @Override
+  public Flux<BookRow> stream(BookRow filter, Sort sort) {
+    return repository.search(filter, sort).limitRate(STREAM_PREFETCH);
+  }
+
+  @Override
+  public Mono<BookRow> getBookByIsbn(String isbn) {
+    return repository.findByIsbn(isbn);
+  }
+
+  private Throwable translate(DataIntegrityViolationException exception) {
+    if (ConstraintViolations.isViolationOf(exception, BookEntity.ISBN_CONSTRAINT)) {
+      return new BusinessException("isbn já cadastrado");
+    }
+    return exception;
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.github.kaheero.config;
+
+import com.github.kaheero.admission.AdmissionControl;
+import com.github.kaheero.admission.AdmissionInterceptor;
+import com.github.kaheero.admission.Limit;
+import com.github.kaheero.admission.TrafficClass;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-client rate limits and load shedding in front of every handler. Pool pressure is read from
+ * the Hikari pool behind the primary datasource; without one, only the rate and concurrency
+ * limits apply.
+ */
+@Profile("!reactive")
+@Configuration
+@ConditionalOnProperty(name = "library.admission.enabled", havingValue = "true")
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration {
+
+  @Bean
+  public AdmissionControl admissionControl(AdmissionProperties properties,
+      ObjectProvider<HikariDataSource> pools) {
+    Map<TrafficClass, Limit> limits = new EnumMap<>(TrafficClass.class);
+    limits.put(TrafficClass.SEARCH, properties.getSearch());
+    limits.put(TrafficClass.READ, properties.getRead());
+    limits.put(TrafficClass.WRITE, properties.getWrite());
+    HikariDataSource pool = pools.getIfUnique();
+    return new AdmissionControl(limits, properties.getMaximumClients(),
+        () -> awaitingConnection(pool));
+  }
+
+  @Bean
+  public WebMvcConfigurer admissionInterceptorConfigurer(AdmissionControl admissionControl) {
+    return new WebMvcConfigurer() {
+      @Override
+      public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl));
+      }
+    };
+  }
+
+  private static int awaitingConnection(HikariDataSource pool) {
+    HikariPoolMXBean bean = Objects.isNull(pool) ? null : pool.getHikariPoolMXBean();
+    return Objects.isNull(bean) ? 0 : bean.getThreadsAwaitingConnection();
+  }
+
+}
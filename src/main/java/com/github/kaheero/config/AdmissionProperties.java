@@ -0,0 +1,26 @@
+package com.github.kaheero.config;
+
+import com.github.kaheero.admission.Limit;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("library.admission")
+public class AdmissionProperties {
+
+  private boolean enabled;
+
+  /**
+   * Token buckets kept at once, one per client and endpoint; the least recently used go first.
+   */
+  private long maximumClients = 100_000;
+
+  private Limit search = new Limit(10, 20, 8, 1);
+
+  private Limit read = new Limit(50, 100, 0, 10);
+
+  private Limit write = new Limit(20, 40, 0, 0);
+
+}
@@ -0,0 +1,37 @@
+package com.github.kaheero.config;
+
+import com.github.kaheero.idempotency.IdempotencyFilter;
+import com.github.kaheero.idempotency.IdempotencyStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Honours {@code Idempotency-Key} on the creation endpoints in {@code library.idempotency.paths}.
+ * The store is local to the instance, so retries have to reach the same instance to be
+ * deduplicated.
+ */
+@Profile("!reactive")
+@Configuration
+@ConditionalOnProperty(name = "library.idempotency.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfiguration {
+
+  @Bean
+  public IdempotencyStore idempotencyStore(IdempotencyProperties properties) {
+    return new IdempotencyStore(properties.getTtl(), properties.getMaximumKeys());
+  }
+
+  @Bean
+  public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+      IdempotencyProperties properties) {
+    FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+        new IdempotencyFilter(store, properties.getWaitTimeout()));
+    registration.setUrlPatterns(properties.getPaths());
+    return registration;
+  }
+
+}
@@ -0,0 +1,32 @@
+package com.github.kaheero.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("library.idempotency")
+public class IdempotencyProperties {
+
+  private boolean enabled = true;
+
+  /**
+   * How long a response stays available for replay; should cover the clients' retry window.
+   */
+  private Duration ttl = Duration.ofHours(24);
+
+  private long maximumKeys = 100_000;
+
+  /**
+   * How long a duplicate waits for the first execution before answering 409.
+   */
+  private Duration waitTimeout = Duration.ofSeconds(30);
+
+  private List<String> paths = new ArrayList<>(Arrays.asList("/books", "/loans"));
+
+}
@@ -0,0 +1,21 @@
+package com.github.kaheero.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns {@code @Timed} service methods into timers tagged with class and method. Repository
+ * timings ({@code spring.data.repository.invocations}), the Hikari pool gauges and the cache meters
+ * come from Spring Boot's own binders.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+
+}
@@ -1,15 +0,0 @@
-package com.github.kaheero.config;
-
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class ObjectMapperConfiguration {
-
-  @Bean
-  public ModelMapper mapper(){
-    return new ModelMapper();
-  }
-
-}
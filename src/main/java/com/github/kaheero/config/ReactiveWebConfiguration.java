@@ -0,0 +1,31 @@
+package com.github.kaheero.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+@Profile("reactive")
+@Configuration
+public class ReactiveWebConfiguration implements WebFluxConfigurer {
+
+  /**
+   * Tomcat is on the classpath for the servlet stack and would otherwise win; Netty serves the
+   * reactive profile from a few event-loop threads.
+   */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  @Override
+  public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+    configurer.addCustomResolver(new ReactiveSortHandlerMethodArgumentResolver());
+    configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+  }
+
+}
@@ -0,0 +1,76 @@
+package com.github.kaheero.config;
+
+import com.github.kaheero.routing.ReadWriteRoutingDataSource;
+import com.github.kaheero.routing.ReadYourWrites;
+import com.github.kaheero.routing.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single pool with the primary from {@code spring.datasource.*} plus the replicas in
+ * {@code library.datasource.routing.replicas}. Read-only transactions are spread over the replicas
+ * unless the client wrote within the read-your-writes window.
+ */
+@Profile("!reactive")
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties({DataSourceProperties.class, RoutingProperties.class})
+public class ReadWriteRoutingConfiguration {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReadYourWrites readYourWrites(RoutingProperties properties) {
+    return new ReadYourWrites(properties.getReadYourWrites(), properties.getMaximumClients());
+  }
+
+  @Bean
+  public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites) {
+    return new ReadYourWritesFilter(readYourWrites);
+  }
+
+  @Bean
+  public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+      RoutingProperties properties, ReadYourWrites readYourWrites) {
+    List<HikariDataSource> replicas = properties.getReplicas().stream()
+        .map(ReadWriteRoutingConfiguration::replica)
+        .collect(Collectors.toList());
+    return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.getSelection(),
+        readYourWrites);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  private static HikariDataSource replica(RoutingProperties.Replica replica) {
+    HikariDataSource dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .url(replica.getUrl())
+        .username(replica.getUsername())
+        .password(replica.getPassword())
+        .build();
+    dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.github.kaheero.config;
+
+import com.github.kaheero.routing.ReplicaSelection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("library.datasource.routing")
+public class RoutingProperties {
+
+  private boolean enabled;
+
+  private ReplicaSelection selection = ReplicaSelection.ROUND_ROBIN;
+
+  /**
+   * How long a client's reads stay on the primary after it wrote; should cover replication lag.
+   */
+  private Duration readYourWrites = Duration.ofSeconds(5);
+
+  private long maximumClients = 100_000;
+
+  private List<Replica> replicas = new ArrayList<>();
+
+  @Getter
+  @Setter
+  public static class Replica {
+
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+
+  }
+
+}
@@ -0,0 +1,16 @@
+package com.github.kaheero.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the scheduled jobs, such as the overdue loan scan. When several instances share a database,
+ * all but one of them set {@code library.scheduling.enabled} to {@code false}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "library.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfiguration {
+
+}
@@ -0,0 +1,23 @@
+package com.github.kaheero.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A request turned away before it reached the handler: 429 when the client ran out of tokens, 503
+ * when its traffic class is being shed. Carries no stack trace, since rejections are meant to be
+ * cheap and are expected under load.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+  private final HttpStatus status;
+  private final long retryAfterSeconds;
+
+  public AdmissionRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+    super(message, null, false, false);
+    this.status = status;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+}
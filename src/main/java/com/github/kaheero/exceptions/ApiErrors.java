@@ -30,4 +30,8 @@ public class ApiErrors {
     this.errors = Collections.singletonList(exception.getMessage());
   }
 
+  public ApiErrors(AdmissionRejectedException exception) {
+    this.errors = Collections.singletonList(exception.getMessage());
+  }
+
 }
@@ -0,0 +1,28 @@
+package com.github.kaheero.exceptions;
+
+import java.util.Locale;
+import java.util.Objects;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tells which named constraint rejected a write. Drivers decorate the name (H2 reports
+ * {@code PUBLIC.UK_BOOK_ISBN_INDEX_1 ON ...}), so the match is a case-insensitive contains. R2DBC
+ * drivers carry no constraint name, only the message of the driver exception.
+ */
+public final class ConstraintViolations {
+
+  private ConstraintViolations() {
+  }
+
+  public static boolean isViolationOf(DataIntegrityViolationException exception,
+      String constraint) {
+    Throwable cause = exception.getCause();
+    String violated = cause instanceof ConstraintViolationException
+        ? ((ConstraintViolationException) cause).getConstraintName()
+        : exception.getMostSpecificCause().getMessage();
+    return Objects.nonNull(violated)
+        && violated.toLowerCase(Locale.ROOT).contains(constraint.toLowerCase(Locale.ROOT));
+  }
+
+}
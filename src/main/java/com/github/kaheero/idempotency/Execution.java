@@ -0,0 +1,23 @@
+package com.github.kaheero.idempotency;
+
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The response of the first execution of a key, pending while it runs, together with the
+ * fingerprint of its request so that reusing the key for a different request can be told apart
+ * from a retry.
+ */
+class Execution extends CompletableFuture<StoredResponse> {
+
+  private final byte[] fingerprint;
+
+  Execution(byte[] fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  boolean matches(byte[] other) {
+    return MessageDigest.isEqual(fingerprint, other);
+  }
+
+}
@@ -0,0 +1,161 @@
+package com.github.kaheero.idempotency;
+
+import com.github.kaheero.routing.ReadYourWritesFilter;
+import java.io.IOException;
+import java.security.Principal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes a {@code POST} carrying {@code Idempotency-Key} run at most once per client, key, method
+ * and path; the client is the authenticated principal, else {@code X-Client-Id}, else the address,
+ * so clients choosing the same key never see each other's responses, and a client retrying from
+ * another address still gets its own. The first request executes and its response is kept unless it
+ * asks for a retry (a server error or 429); repeats get that response back with
+ * {@code Idempotent-Replayed: true}, and a repeat arriving while the first one runs waits for it up
+ * to {@code waitTimeout} and answers 409 after that. The body is fingerprinted, and a key reused
+ * with a different body answers 422.
+ */
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String KEY_HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAXIMUM_KEY_LENGTH = 255;
+
+  private final IdempotencyStore store;
+  private final Duration waitTimeout;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !HttpMethod.POST.matches(request.getMethod())
+        || Objects.isNull(request.getHeader(KEY_HEADER));
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    String header = request.getHeader(KEY_HEADER);
+    if (header.isEmpty() || header.length() > MAXIMUM_KEY_LENGTH) {
+      response.sendError(HttpStatus.BAD_REQUEST.value(),
+          KEY_HEADER + " must have between 1 and " + MAXIMUM_KEY_LENGTH + " characters");
+      return;
+    }
+    String key = String.join(" ", client(request), request.getMethod(), request.getRequestURI(),
+        header);
+    BufferedRequest buffered = new BufferedRequest(request);
+    byte[] fingerprint = fingerprint(buffered.getBody());
+    while (true) {
+      Execution execution = new Execution(fingerprint);
+      Execution first = store.claim(key, execution);
+      if (Objects.isNull(first)) {
+        execute(key, execution, buffered, response, filterChain);
+        return;
+      }
+      if (!first.matches(fingerprint)) {
+        response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+            KEY_HEADER + " was already used for a different request");
+        return;
+      }
+      try {
+        replay(first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS), response);
+        return;
+      } catch (ExecutionException exception) {
+        // the first execution failed and released the key: claim it again
+      } catch (TimeoutException exception) {
+        response.sendError(HttpStatus.CONFLICT.value(),
+            "A request with this " + KEY_HEADER + " is still being processed");
+        return;
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new ServletException(exception);
+      }
+    }
+  }
+
+  private void execute(String key, Execution execution,
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    ContentCachingResponseWrapper recorded = new ContentCachingResponseWrapper(response);
+    try {
+      filterChain.doFilter(request, recorded);
+    } catch (ServletException | IOException | RuntimeException exception) {
+      store.fail(key, execution, exception);
+      throw exception;
+    }
+    if (isRetryable(recorded.getStatus())) {
+      store.fail(key, execution, new IllegalStateException("status " + recorded.getStatus()));
+    } else {
+      store.complete(execution, new StoredResponse(recorded.getStatus(),
+          recorded.getContentType(), recorded.getHeader(HttpHeaders.LOCATION),
+          recorded.getHeader(HttpHeaders.ETAG), recorded.getContentAsByteArray()));
+    }
+    recorded.copyBodyToResponse();
+  }
+
+  // prefixed so that an X-Client-Id can never pass for a principal or an address
+  private static String client(HttpServletRequest request) {
+    Principal principal = request.getUserPrincipal();
+    if (Objects.nonNull(principal)) {
+      return "principal:" + principal.getName();
+    }
+    String client = request.getHeader(ReadYourWritesFilter.CLIENT_HEADER);
+    return Objects.isNull(client) ? "address:" + request.getRemoteAddr() : "client:" + client;
+  }
+
+  /**
+   * Responses that ask the client to retry release the key: server errors, and 429 and 503 from
+   * admission control, which turns requests away before they run.
+   */
+  private static boolean isRetryable(int status) {
+    return status >= HttpStatus.INTERNAL_SERVER_ERROR.value()
+        || status == HttpStatus.TOO_MANY_REQUESTS.value();
+  }
+
+  private static byte[] fingerprint(byte[] body) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(body);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+    store.replayed();
+    response.setHeader(REPLAYED_HEADER, "true");
+    if (stored.getBody().length == 0 && stored.getStatus() >= HttpStatus.BAD_REQUEST.value()) {
+      // the first response was a sendError rendered by the error page, so render it again
+      response.sendError(stored.getStatus());
+      return;
+    }
+    response.setStatus(stored.getStatus());
+    if (Objects.nonNull(stored.getContentType())) {
+      response.setContentType(stored.getContentType());
+    }
+    if (Objects.nonNull(stored.getLocation())) {
+      response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+    }
+    if (Objects.nonNull(stored.getETag())) {
+      response.setHeader(HttpHeaders.ETAG, stored.getETag());
+    }
+    response.setContentLength(stored.getBody().length);
+    response.getOutputStream().write(stored.getBody());
+  }
+
+}
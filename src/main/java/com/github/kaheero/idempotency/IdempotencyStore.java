@@ -0,0 +1,67 @@
+package com.github.kaheero.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Responses by idempotency key, bounded in count and expiring after {@code ttl}. A key is claimed
+ * with a pending future before the first execution starts, so a concurrent duplicate finds it and
+ * waits for that execution instead of running the write again.
+ */
+public class IdempotencyStore implements MeterBinder {
+
+  private final Cache<String, Execution> responses;
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder replayed = new LongAdder();
+
+  public IdempotencyStore(Duration ttl, long maximumKeys) {
+    this.responses = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maximumKeys)
+        .build();
+  }
+
+  /**
+   * Claims the key for {@code execution} and returns {@code null}, or returns the execution that
+   * already holds it.
+   */
+  Execution claim(String key, Execution execution) {
+    return responses.asMap().putIfAbsent(key, execution);
+  }
+
+  void complete(Execution execution, StoredResponse response) {
+    executed.increment();
+    execution.complete(response);
+  }
+
+  /**
+   * Releases the key so the next retry executes again, and lets the waiting duplicates know.
+   */
+  void fail(String key, Execution execution, Throwable cause) {
+    responses.asMap().remove(key, execution);
+    execution.completeExceptionally(cause);
+  }
+
+  void replayed() {
+    replayed.increment();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("idempotency.requests", executed, LongAdder::sum)
+        .tag("result", "executed")
+        .register(registry);
+    FunctionCounter.builder("idempotency.requests", replayed, LongAdder::sum)
+        .tag("result", "replayed")
+        .register(registry);
+    Gauge.builder("idempotency.keys", responses, Cache::estimatedSize)
+        .register(registry);
+  }
+
+}
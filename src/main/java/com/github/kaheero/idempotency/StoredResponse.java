@@ -0,0 +1,20 @@
+package com.github.kaheero.idempotency;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * What a replay needs from the first response: status, the headers a client may act on and the
+ * body bytes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StoredResponse {
+
+  private final int status;
+  private final String contentType;
+  private final String location;
+  private final String eTag;
+  private final byte[] body;
+
+}
@@ -1,42 +1,157 @@
 package com.github.kaheero.loans;
 
-import com.github.kaheero.book.BookEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.kaheero.admission.AdmissionClass;
+import com.github.kaheero.admission.TrafficClass;
 import com.github.kaheero.book.BookService;
+import com.github.kaheero.pagination.CursorPage;
+import com.github.kaheero.pagination.Cursors;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/loans")
 public class LoanController {
 
+  private static final int MAX_HISTORY_PAGE_SIZE = 1000;
+
   private final LoanService loanService;
   private final BookService bookService;
+  private final LoanMapper mapper;
+  private final ObjectMapper objectMapper;
 
+  /**
+   * Only the book's id is resolved, from a cached isbn to id map, and the loan points at a lazy
+   * reference; the book row is never read.
+   */
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public Long create(@RequestBody LoanDTO loanDTO) {
 
-    BookEntity book = bookService.getBookByIsbn(loanDTO.getIsbn())
+    Long bookId = bookService.getBookIdByIsbn(loanDTO.getIsbn())
         .orElseThrow(() ->
             new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found passed isbn"));
 
-    LoanEntity loanEntity = LoanEntity.builder()
-        .book(book)
-        .customer(loanDTO.getCustomer())
-        .startAt(LocalDate.now())
-        .build();
+    LoanEntity loanEntity = mapper.toEntity(loanDTO);
+    loanEntity.setBook(bookService.getBookReference(bookId));
+    loanEntity.setStartAt(LocalDate.now());
 
     loanEntity = loanService.save(loanEntity);
     return loanEntity.getId();
   }
 
+  /**
+   * Loan history of one isbn or one customer, newest first, in keyset pages: {@code next} is the
+   * cursor of the following page and is absent on the last one.
+   */
+  @GetMapping
+  @AdmissionClass(TrafficClass.SEARCH)
+  public CursorPage<LoanDTO> findLoans(@RequestParam(required = false) String isbn,
+      @RequestParam(required = false) String customer,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+    }
+    Long beforeId = Cursors.decode(cursor);
+    Slice<LoanHistory> result = byIsbn(isbn, customer)
+        ? loanService.findHistoryByIsbn(isbn, beforeId, size)
+        : loanService.findHistoryByCustomer(customer, beforeId, size);
+    List<LoanHistory> content = result.getContent();
+    String next = result.hasNext()
+        ? Cursors.encode(content.get(content.size() - 1).getId())
+        : null;
+    return new CursorPage<>(content.stream().map(mapper::toDto).collect(Collectors.toList()), next);
+  }
+
+  /**
+   * The whole history of one isbn or one customer as NDJSON, read through a database cursor, for
+   * reports that would otherwise walk thousands of pages.
+   */
+  @GetMapping(path = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @AdmissionClass(TrafficClass.SEARCH)
+  public ResponseEntity<StreamingResponseBody> exportLoans(
+      @RequestParam(required = false) String isbn,
+      @RequestParam(required = false) String customer) {
+    boolean byIsbn = byIsbn(isbn, customer);
+    StreamingResponseBody body = out -> {
+      ObjectWriter writer = objectMapper.writerFor(LoanDTO.class)
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+        generator.setRootValueSeparator(null);
+        Consumer<LoanHistory> action = loan -> {
+          try {
+            writer.writeValue(generator, mapper.toDto(loan));
+            generator.writeRaw('\n');
+          } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+          }
+        };
+        if (byIsbn) {
+          loanService.exportHistoryByIsbn(isbn, action);
+        } else {
+          loanService.exportHistoryByCustomer(customer, action);
+        }
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @PostMapping(path = "/{id}/return")
+  public LoanDTO returnLoan(@PathVariable Long id) {
+    return update(id, loanService::returnLoan);
+  }
+
+  @PostMapping(path = "/{id}/renew")
+  public LoanDTO renew(@PathVariable Long id) {
+    return update(id, loanService::renew);
+  }
+
+  private LoanDTO update(Long id, UnaryOperator<LoanEntity> operation) {
+    LoanEntity loan = loanService.getLoanById(id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    try {
+      return mapper.toDto(operation.apply(loan));
+    } catch (OptimisticLockingFailureException exception) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "loan was modified by another request");
+    }
+  }
+
+  private static boolean byIsbn(String isbn, String customer) {
+    if (Objects.isNull(isbn) == Objects.isNull(customer)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "exactly one of isbn or customer is required");
+    }
+    return Objects.nonNull(isbn);
+  }
 
 }
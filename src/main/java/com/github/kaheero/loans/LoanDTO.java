@@ -1,5 +1,7 @@
 package com.github.kaheero.loans;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDate;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,9 +11,16 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LoanDTO {
 
+  private Long id;
   private String isbn;
   private String customer;
+  private LocalDate startAt;
+  private LocalDate dueAt;
+  private LocalDate endAt;
+  private Boolean returned;
+  private Integer renewals;
 
 }
@@ -2,23 +2,104 @@ package com.github.kaheero.loans;
 
 import com.github.kaheero.book.BookEntity;
 import java.time.LocalDate;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Entity
+@Table(
+    indexes = {
+        @Index(name = "idx_loan_book", columnList = "book_id"),
+        @Index(name = "idx_loan_customer", columnList = "customer, id"),
+        @Index(name = "idx_loan_isbn", columnList = "isbn, id"),
+        @Index(name = "idx_loan_overdue", columnList = "returned, due_at")
+    },
+    uniqueConstraints = @UniqueConstraint(name = LoanEntity.ACTIVE_BOOK_CONSTRAINT,
+        columnNames = "active_book_id"))
 public class LoanEntity {
 
+  public static final String ACTIVE_BOOK_CONSTRAINT = "uk_loan_active_book";
+
+  @Id
+  @Column
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_sequence")
+  @SequenceGenerator(name = "loan_sequence", sequenceName = "loan_sequence",
+      allocationSize = BookEntity.ID_ALLOCATION_SIZE)
   private Long id;
+
+  @Column
   private String isbn;
+
+  @Column
   private String customer;
+
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "book_id", nullable = false,
+      foreignKey = @ForeignKey(name = BookEntity.LOAN_CONSTRAINT))
   private BookEntity book;
+
+  /**
+   * The book id while the loan is open and {@code null} once it is returned. The unique constraint
+   * on this column lets the database admit at most one open loan per book.
+   */
+  @Column(name = "active_book_id")
+  private Long activeBookId;
+
+  /**
+   * The day the book was loaned; renewals leave it as it is.
+   */
+  @Column(name = "start_at")
   private LocalDate startAt;
+
+  /**
+   * End of the current loan period; a renewal moves it one period past the renewal date, and the
+   * loan is overdue once this has passed.
+   */
+  @Column(name = "due_at")
+  private LocalDate dueAt;
+
+  /**
+   * The day the book came back.
+   */
+  @Column
   private LocalDate endAt;
+
+  @Column
   private Boolean returned;
 
+  @Column
+  private Integer renewals;
+
+  /**
+   * Set by the overdue scan once the customer has been notified for the current period.
+   */
+  @Column
+  private LocalDate overdueNotifiedAt;
+
+  @Version
+  private Long version;
+
 }
@@ -0,0 +1,27 @@
+package com.github.kaheero.loans;
+
+import java.time.LocalDate;
+
+/**
+ * A loan as the history listings show it, read from the loan row alone; the book is identified by
+ * the isbn stored with the loan, so its entity is never joined or loaded.
+ */
+public interface LoanHistory {
+
+  Long getId();
+
+  String getIsbn();
+
+  String getCustomer();
+
+  LocalDate getStartAt();
+
+  LocalDate getDueAt();
+
+  LocalDate getEndAt();
+
+  Boolean getReturned();
+
+  Integer getRenewals();
+
+}
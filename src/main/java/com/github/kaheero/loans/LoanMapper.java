@@ -0,0 +1,25 @@
+package com.github.kaheero.loans;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface LoanMapper {
+
+  LoanDTO toDto(LoanEntity entity);
+
+  LoanDTO toDto(LoanHistory history);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "book", ignore = true)
+  @Mapping(target = "startAt", ignore = true)
+  @Mapping(target = "dueAt", ignore = true)
+  @Mapping(target = "endAt", ignore = true)
+  @Mapping(target = "returned", ignore = true)
+  @Mapping(target = "activeBookId", ignore = true)
+  @Mapping(target = "renewals", ignore = true)
+  @Mapping(target = "overdueNotifiedAt", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  LoanEntity toEntity(LoanDTO dto);
+
+}
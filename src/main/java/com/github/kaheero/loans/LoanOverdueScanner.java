@@ -0,0 +1,94 @@
+package com.github.kaheero.loans;
+
+import io.micrometer.core.annotation.Timed;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads the overdue loans in id order through one cursor and notifies them a chunk at a time: one
+ * bulk update and one event per chunk instead of a round trip per loan. The cursor only names
+ * candidates; each chunk locks the ones still overdue and marks and publishes exactly those, so a
+ * loan returned or renewed meanwhile is skipped. The event is published in the chunk's own
+ * transaction, so what its listeners write, such as the notices of {@link OverdueNoticeWriter},
+ * commits with the marks or not at all. Notified loans drop out of later scans until a renewal
+ * starts a new period, so a scan that dies halfway resumes after the last committed chunk.
+ */
+@Slf4j
+@Component
+public class LoanOverdueScanner {
+
+  private final LoanRepository repository;
+  private final TransactionTemplate readTransaction;
+  private final TransactionTemplate chunkTransaction;
+  private final ApplicationEventPublisher publisher;
+  private final int chunkSize;
+
+  public LoanOverdueScanner(LoanRepository repository,
+      PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher publisher,
+      @Value("${library.loans.overdue.chunk-size:1000}") int chunkSize) {
+    this.repository = repository;
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.chunkTransaction = new TransactionTemplate(transactionManager);
+    this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.publisher = publisher;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Returns how many loans were notified. Holds two connections while it runs: the cursor's and
+   * the current chunk's.
+   */
+  @Timed("library.loans.overdue.scan")
+  @Scheduled(cron = "${library.loans.overdue.cron:0 0 6 * * *}")
+  public int scan() {
+    LocalDate today = LocalDate.now();
+    int notified = readTransaction.execute(status -> {
+      int count = 0;
+      try (Stream<OverdueLoan> overdue = repository.streamOverdue(today)) {
+        Iterator<OverdueLoan> loans = overdue.iterator();
+        List<OverdueLoan> chunk = new ArrayList<>(chunkSize);
+        while (loans.hasNext()) {
+          chunk.add(loans.next());
+          if (chunk.size() == chunkSize || !loans.hasNext()) {
+            count += notify(chunk, today);
+            chunk = new ArrayList<>(chunkSize);
+          }
+        }
+      }
+      return count;
+    });
+    log.info("Overdue scan notified {} loans", notified);
+    return notified;
+  }
+
+  private int notify(List<OverdueLoan> chunk, LocalDate today) {
+    return chunkTransaction.execute(status -> {
+      List<OverdueLoan> overdue = repository.lockOverdue(ids(chunk), today);
+      if (overdue.isEmpty()) {
+        return 0;
+      }
+      int marked = repository.markOverdueNotified(ids(overdue), today, today);
+      publisher.publishEvent(new OverdueLoansEvent(overdue));
+      return marked;
+    });
+  }
+
+  private static List<Long> ids(List<OverdueLoan> loans) {
+    return loans.stream().map(OverdueLoan::getId).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,85 @@
+package com.github.kaheero.loans;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface LoanRepository extends JpaRepository<LoanEntity, Long> {
+
+  String HISTORY = "select l.id as id, l.isbn as isbn, l.customer as customer, "
+      + "l.startAt as startAt, l.dueAt as dueAt, l.endAt as endAt, l.returned as returned, "
+      + "l.renewals as renewals "
+      + "from LoanEntity l ";
+
+  String OVERDUE = "l.returned = false and l.dueAt < :dueBefore and l.overdueNotifiedAt is null ";
+
+  String OVERDUE_LOAN = "select l.id as id, l.isbn as isbn, l.customer as customer, "
+      + "l.dueAt as dueAt from LoanEntity l ";
+
+  /**
+   * Loans of an isbn, newest first, with ids below {@code beforeId}; a keyset page read from
+   * {@code idx_loan_isbn}.
+   */
+  @Transactional(readOnly = true)
+  @Query(HISTORY + "where l.isbn = :isbn and l.id < :beforeId order by l.id desc")
+  Slice<LoanHistory> findHistoryByIsbn(@Param("isbn") String isbn,
+      @Param("beforeId") Long beforeId, Pageable pageable);
+
+  /**
+   * Loans of a customer, newest first, with ids below {@code beforeId}; a keyset page read from
+   * {@code idx_loan_customer}.
+   */
+  @Transactional(readOnly = true)
+  @Query(HISTORY + "where l.customer = :customer and l.id < :beforeId order by l.id desc")
+  Slice<LoanHistory> findHistoryByCustomer(@Param("customer") String customer,
+      @Param("beforeId") Long beforeId, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query(HISTORY + "where l.isbn = :isbn order by l.id desc")
+  Stream<LoanHistory> streamHistoryByIsbn(@Param("isbn") String isbn);
+
+  @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query(HISTORY + "where l.customer = :customer order by l.id desc")
+  Stream<LoanHistory> streamHistoryByCustomer(@Param("customer") String customer);
+
+  /**
+   * Open loans due before {@code dueBefore} and not yet notified, in id order. The
+   * {@code idx_loan_overdue} range holds only open loans, so returned ones are never read; the rows
+   * arrive through a cursor, a thousand at a time, and need a surrounding
+   * transaction.
+   */
+  @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE,
+      value = "1000"))
+  @Query(OVERDUE_LOAN + "where " + OVERDUE + "order by l.id")
+  Stream<OverdueLoan> streamOverdue(@Param("dueBefore") LocalDate dueBefore);
+
+  /**
+   * The loans among {@code ids} that are still overdue and not notified, locked until the
+   * surrounding transaction ends. A loan returned, renewed or notified by another scan since the
+   * cursor read it is left out.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(OVERDUE_LOAN + "where l.id in :ids and " + OVERDUE + "order by l.id")
+  List<OverdueLoan> lockOverdue(@Param("ids") Collection<Long> ids,
+      @Param("dueBefore") LocalDate dueBefore);
+
+  @Modifying
+  @Transactional
+  @Query("update LoanEntity l set l.overdueNotifiedAt = :notifiedAt "
+      + "where l.id in :ids and " + OVERDUE)
+  int markOverdueNotified(@Param("ids") Collection<Long> ids,
+      @Param("dueBefore") LocalDate dueBefore, @Param("notifiedAt") LocalDate notifiedAt);
+
+}
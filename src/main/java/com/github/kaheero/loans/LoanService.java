@@ -1,7 +1,25 @@
 package com.github.kaheero.loans;
 
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.data.domain.Slice;
+
 public interface LoanService {
 
   LoanEntity save(LoanEntity loan);
 
+  Optional<LoanEntity> getLoanById(Long id);
+
+  LoanEntity returnLoan(LoanEntity loan);
+
+  LoanEntity renew(LoanEntity loan);
+
+  Slice<LoanHistory> findHistoryByIsbn(String isbn, Long beforeId, int size);
+
+  Slice<LoanHistory> findHistoryByCustomer(String customer, Long beforeId, int size);
+
+  void exportHistoryByIsbn(String isbn, Consumer<LoanHistory> action);
+
+  void exportHistoryByCustomer(String customer, Consumer<LoanHistory> action);
+
 }
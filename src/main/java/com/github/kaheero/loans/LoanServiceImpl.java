@@ -1,13 +1,132 @@
 package com.github.kaheero.loans;
 
+import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.exceptions.ConstraintViolations;
+import io.micrometer.core.annotation.Timed;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class LoanServiceImpl implements LoanService {
 
+  private final LoanRepository repository;
+  private final Period period;
+  private final int maximumRenewals;
+
+  public LoanServiceImpl(LoanRepository repository,
+      @Value("${library.loans.period:P14D}") Period period,
+      @Value("${library.loans.maximum-renewals:2}") int maximumRenewals) {
+    this.repository = repository;
+    this.period = period;
+    this.maximumRenewals = maximumRenewals;
+  }
+
+  /**
+   * A single insert: the unique index on {@code activeBookId} rejects a second open loan, so
+   * checking for one first would only add a round trip to every successful checkout.
+   */
   @Override
+  @Timed("library.service")
   public LoanEntity save(LoanEntity loan) {
-    return null;
+    loan.setReturned(Boolean.FALSE);
+    loan.setRenewals(0);
+    loan.setDueAt(loan.getStartAt().plus(period));
+    loan.setActiveBookId(loan.getBook().getId());
+    try {
+      return repository.saveAndFlush(loan);
+    } catch (DataIntegrityViolationException exception) {
+      if (ConstraintViolations.isViolationOf(exception, LoanEntity.ACTIVE_BOOK_CONSTRAINT)) {
+        throw new BusinessException("Book already loaned");
+      }
+      throw exception;
+    }
+  }
+
+  @Override
+  public Optional<LoanEntity> getLoanById(Long id) {
+    return repository.findById(id);
+  }
+
+  /**
+   * Clearing {@code activeBookId} releases the unique slot, so the book can be loaned again as
+   * soon as this commits. A concurrent return or renewal fails on the version check.
+   */
+  @Override
+  @Timed("library.service")
+  public LoanEntity returnLoan(LoanEntity loan) {
+    if (Boolean.TRUE.equals(loan.getReturned())) {
+      throw new BusinessException("Loan already returned");
+    }
+    loan.setReturned(Boolean.TRUE);
+    loan.setEndAt(LocalDate.now());
+    loan.setActiveBookId(null);
+    return repository.save(loan);
+  }
+
+  @Override
+  @Timed("library.service")
+  public LoanEntity renew(LoanEntity loan) {
+    if (Boolean.TRUE.equals(loan.getReturned())) {
+      throw new BusinessException("Loan already returned");
+    }
+    LocalDate today = LocalDate.now();
+    if (loan.getDueAt().isBefore(today)) {
+      throw new BusinessException("Overdue loans cannot be renewed");
+    }
+    int renewals = Optional.ofNullable(loan.getRenewals()).orElse(0);
+    if (renewals >= maximumRenewals) {
+      throw new BusinessException("Loan reached the maximum of " + maximumRenewals + " renewals");
+    }
+    loan.setDueAt(today.plus(period));
+    loan.setRenewals(renewals + 1);
+    loan.setOverdueNotifiedAt(null);
+    return repository.save(loan);
+  }
+
+  @Override
+  @Timed("library.service")
+  public Slice<LoanHistory> findHistoryByIsbn(String isbn, Long beforeId, int size) {
+    return repository.findHistoryByIsbn(isbn, upperBound(beforeId), PageRequest.ofSize(size));
+  }
+
+  @Override
+  @Timed("library.service")
+  public Slice<LoanHistory> findHistoryByCustomer(String customer, Long beforeId, int size) {
+    return repository.findHistoryByCustomer(customer, upperBound(beforeId),
+        PageRequest.ofSize(size));
+  }
+
+  @Override
+  @Timed("library.service")
+  @Transactional(readOnly = true)
+  public void exportHistoryByIsbn(String isbn, Consumer<LoanHistory> action) {
+    try (Stream<LoanHistory> loans = repository.streamHistoryByIsbn(isbn)) {
+      loans.forEach(action);
+    }
+  }
+
+  @Override
+  @Timed("library.service")
+  @Transactional(readOnly = true)
+  public void exportHistoryByCustomer(String customer, Consumer<LoanHistory> action) {
+    try (Stream<LoanHistory> loans = repository.streamHistoryByCustomer(customer)) {
+      loans.forEach(action);
+    }
+  }
+
+  // the first page has no cursor; starting below Long.MAX_VALUE keeps a single query shape
+  private static Long upperBound(Long beforeId) {
+    return Objects.isNull(beforeId) ? Long.MAX_VALUE : beforeId;
   }
 
 }
@@ -0,0 +1,18 @@
+package com.github.kaheero.loans;
+
+import java.time.LocalDate;
+
+/**
+ * The columns an overdue notice needs, read without loading the entity or its book.
+ */
+public interface OverdueLoan {
+
+  Long getId();
+
+  String getIsbn();
+
+  String getCustomer();
+
+  LocalDate getDueAt();
+
+}
@@ -0,0 +1,17 @@
+package com.github.kaheero.loans;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One chunk of loans that just became overdue, published inside the transaction that marks the
+ * chunk as notified. A listener that throws rolls the chunk back.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OverdueLoansEvent {
+
+  private final List<OverdueLoan> loans;
+
+}
@@ -0,0 +1,50 @@
+package com.github.kaheero.loans;
+
+import com.github.kaheero.book.BookEntity;
+import java.time.LocalDate;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An overdue notice waiting to be delivered to the customer. Notices are the outbox of the overdue
+ * scan: each is written in the transaction that marks its loan as notified, so a loan is never
+ * marked without a notice to deliver, and a delivery relay reads and removes them at its own pace.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class OverdueNoticeEntity {
+
+  @Id
+  @Column
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "overdue_notice_sequence")
+  @SequenceGenerator(name = "overdue_notice_sequence", sequenceName = "overdue_notice_sequence",
+      allocationSize = BookEntity.ID_ALLOCATION_SIZE)
+  private Long id;
+
+  @Column
+  private Long loanId;
+
+  @Column
+  private String isbn;
+
+  @Column
+  private String customer;
+
+  @Column
+  private LocalDate dueAt;
+
+  @Column
+  private LocalDate createdAt;
+
+}
@@ -0,0 +1,7 @@
+package com.github.kaheero.loans;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OverdueNoticeRepository extends JpaRepository<OverdueNoticeEntity, Long> {
+
+}
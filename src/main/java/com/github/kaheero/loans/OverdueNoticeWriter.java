@@ -0,0 +1,40 @@
+package com.github.kaheero.loans;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Turns each chunk of overdue loans into notices; the event holds only the loans the chunk marked.
+ * Runs synchronously inside the chunk's transaction, which it requires, so the notices commit
+ * together with the marks; if writing them fails, the chunk rolls back and its loans are picked up
+ * again by the next scan.
+ */
+@Component
+@RequiredArgsConstructor
+public class OverdueNoticeWriter {
+
+  private final OverdueNoticeRepository repository;
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void write(OverdueLoansEvent event) {
+    LocalDate today = LocalDate.now();
+    List<OverdueNoticeEntity> notices = event.getLoans().stream()
+        .map(loan -> OverdueNoticeEntity.builder()
+            .loanId(loan.getId())
+            .isbn(loan.getIsbn())
+            .customer(loan.getCustomer())
+            .dueAt(loan.getDueAt())
+            .createdAt(today)
+            .build())
+        .collect(Collectors.toList());
+    repository.saveAll(notices);
+  }
+
+}
@@ -0,0 +1,13 @@
+package com.github.kaheero.pagination;
+
+/**
+ * How a paged listing reports its total: an exact {@code count(*)}, a cached count that may lag
+ * behind recent writes, or no total at all (a slice with a has-next flag).
+ */
+public enum CountMode {
+
+  EXACT,
+  ESTIMATED,
+  NONE
+
+}
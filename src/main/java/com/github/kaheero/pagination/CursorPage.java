@@ -0,0 +1,15 @@
+package com.github.kaheero.pagination;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+  private final List<T> content;
+
+  private final String next;
+
+}
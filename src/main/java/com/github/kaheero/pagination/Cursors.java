@@ -0,0 +1,35 @@
+package com.github.kaheero.pagination;
+
+import com.github.kaheero.exceptions.BusinessException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque keyset cursors. The token wraps the last key a client has seen, so the next page starts
+ * strictly after it.
+ */
+public final class Cursors {
+
+  private Cursors() {
+  }
+
+  public static String encode(Long key) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(key.toString().getBytes(StandardCharsets.US_ASCII));
+  }
+
+  public static Long decode(String cursor) {
+    if (Objects.isNull(cursor) || cursor.isEmpty()) {
+      return null;
+    }
+    try {
+      return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor),
+          StandardCharsets.US_ASCII));
+    } catch (IllegalArgumentException exception) {
+      throw new BusinessException("Invalid cursor");
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.github.kaheero.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. The decision is
+ * made when the connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for the connection before it publishes the read-only flag.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements
+    DisposableBean {
+
+  private static final String PRIMARY = "primary";
+
+  private final List<HikariDataSource> replicas;
+  private final ReplicaSelection selection;
+  private final ReadYourWrites readYourWrites;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReadWriteRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+      ReplicaSelection selection, ReadYourWrites readYourWrites) {
+    this.replicas = new ArrayList<>(replicas);
+    this.selection = selection;
+    this.readYourWrites = readYourWrites;
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int index = 0; index < replicas.size(); index++) {
+      targets.put(index, replicas.get(index));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicas.isEmpty()
+        || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        || readYourWrites.isPinnedToPrimary()) {
+      return PRIMARY;
+    }
+    return selection == ReplicaSelection.LEAST_LOADED ? leastLoaded() : roundRobin();
+  }
+
+  @Override
+  public void destroy() {
+    replicas.forEach(HikariDataSource::close);
+  }
+
+  private int roundRobin() {
+    return Math.floorMod(next.getAndIncrement(), replicas.size());
+  }
+
+  private int leastLoaded() {
+    int best = 0;
+    int bestActive = Integer.MAX_VALUE;
+    for (int index = 0; index < replicas.size(); index++) {
+      int active = replicas.get(index).getHikariPoolMXBean() == null
+          ? 0
+          : replicas.get(index).getHikariPoolMXBean().getActiveConnections();
+      if (active < bestActive) {
+        best = index;
+        bestActive = active;
+      }
+    }
+    return best;
+  }
+
+}
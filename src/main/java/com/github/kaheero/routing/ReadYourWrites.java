@@ -0,0 +1,58 @@
+package com.github.kaheero.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Objects;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Clients that wrote within the last {@code window}. Their reads stay on the primary until the
+ * replicas have had time to catch up with what they just changed. The client of the current
+ * thread is bound by {@link ReadYourWritesFilter}.
+ */
+public class ReadYourWrites {
+
+  private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+  private final Duration window;
+  private final Cache<String, Boolean> writers;
+
+  public ReadYourWrites(Duration window, long maximumClients) {
+    this.window = window;
+    this.writers = Caffeine.newBuilder()
+        .expireAfterWrite(window)
+        .maximumSize(maximumClients)
+        .build();
+  }
+
+  public void bind(String client) {
+    CLIENT.set(client);
+  }
+
+  public void clear() {
+    CLIENT.remove();
+  }
+
+  public void wrote() {
+    String client = CLIENT.get();
+    if (Objects.nonNull(client)) {
+      writers.put(client, Boolean.TRUE);
+    }
+  }
+
+  public boolean isPinnedToPrimary() {
+    String client = CLIENT.get();
+    return Objects.nonNull(client) && Objects.nonNull(writers.getIfPresent(client));
+  }
+
+  /**
+   * How long a replica may still return what a write replaced: the window of the routing in place,
+   * or zero when there is none and every read goes to the primary.
+   */
+  public static Duration windowOf(ObjectProvider<ReadYourWrites> readYourWrites) {
+    ReadYourWrites routing = readYourWrites.getIfAvailable();
+    return Objects.isNull(routing) ? Duration.ZERO : routing.window;
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.github.kaheero.routing;
+
+import java.io.IOException;
+import java.util.Objects;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Identifies the client by {@code X-Client-Id}, or by its address without one, and opens its
+ * read-your-writes window once a successful unsafe request has committed.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String CLIENT_HEADER = "X-Client-Id";
+
+  private final ReadYourWrites readYourWrites;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    String client = request.getHeader(CLIENT_HEADER);
+    readYourWrites.bind(Objects.isNull(client) ? request.getRemoteAddr() : client);
+    try {
+      filterChain.doFilter(request, response);
+      if (isWrite(request.getMethod()) && response.getStatus() < 400) {
+        readYourWrites.wrote();
+      }
+    } finally {
+      readYourWrites.clear();
+    }
+  }
+
+  private static boolean isWrite(String method) {
+    return !HttpMethod.GET.matches(method)
+        && !HttpMethod.HEAD.matches(method)
+        && !HttpMethod.OPTIONS.matches(method);
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.github.kaheero.routing;
+
+/**
+ * How {@link ReadWriteRoutingDataSource} picks the replica for a read-only transaction.
+ */
+public enum ReplicaSelection {
+
+  ROUND_ROBIN,
+
+  /**
+   * The replica whose pool has the fewest connections in use, ties broken in declaration order.
+   */
+  LEAST_LOADED
+
+}
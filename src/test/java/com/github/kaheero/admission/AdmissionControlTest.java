@@ -0,0 +1,124 @@
+package com.github.kaheero.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import com.github.kaheero.exceptions.AdmissionRejectedException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class AdmissionControlTest {
+
+  private static final String ENDPOINT = "GET /books";
+
+  private AtomicLong clock;
+  private AtomicInteger awaitingConnection;
+  private AdmissionControl admission;
+
+  @BeforeEach
+  public void setup() {
+    Map<TrafficClass, Limit> limits = new EnumMap<>(TrafficClass.class);
+    limits.put(TrafficClass.SEARCH, new Limit(1, 2, 1, 1));
+    limits.put(TrafficClass.READ, new Limit(100, 100, 0, 10));
+    limits.put(TrafficClass.WRITE, new Limit(100, 100, 0, 0));
+    clock = new AtomicLong();
+    awaitingConnection = new AtomicInteger();
+    admission = new AdmissionControl(limits, 100, awaitingConnection::get, clock::get);
+  }
+
+  @Test
+  @DisplayName("Deve aceitar a rajada e recusar com 429 até o próximo token, por endpoint.")
+  void rateLimitTest() {
+    // cenário
+    admitAndRelease("client-1", TrafficClass.SEARCH);
+    admitAndRelease("client-1", TrafficClass.SEARCH);
+
+    // execução
+    AdmissionRejectedException exception = reject("client-1", TrafficClass.SEARCH);
+
+    // verificação
+    assertThat(exception.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(exception.getRetryAfterSeconds()).isEqualTo(1);
+    admitAndRelease("client-2", TrafficClass.SEARCH);
+    admission.admit("client-1", "GET /books/_export", TrafficClass.SEARCH);
+    admission.release(TrafficClass.SEARCH);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    admitAndRelease("client-1", TrafficClass.SEARCH);
+  }
+
+  @Test
+  @DisplayName("Não deve gastar a cota do cliente com as requisições descartadas com 503.")
+  void shedDoesNotSpendTokensTest() {
+    // cenário
+    awaitingConnection.set(1);
+    for (int i = 0; i < 3; i++) {
+      reject("client-1", TrafficClass.SEARCH);
+    }
+    awaitingConnection.set(0);
+    admission.admit("client-2", ENDPOINT, TrafficClass.SEARCH);
+    for (int i = 0; i < 3; i++) {
+      reject("client-1", TrafficClass.SEARCH);
+    }
+    admission.release(TrafficClass.SEARCH);
+
+    // execução e verificação
+    admitAndRelease("client-1", TrafficClass.SEARCH);
+    admitAndRelease("client-1", TrafficClass.SEARCH);
+    assertThat(reject("client-1", TrafficClass.SEARCH).getStatus())
+        .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  @Test
+  @DisplayName("Deve descartar as buscas antes das leituras e nunca as escritas quando o pool tiver fila.")
+  void shedOnPoolPressureTest() {
+    // cenário
+    awaitingConnection.set(1);
+
+    // execução
+    AdmissionRejectedException exception = reject("client-1", TrafficClass.SEARCH);
+
+    // verificação
+    assertThat(exception.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(exception.getRetryAfterSeconds()).isEqualTo(1);
+    admitAndRelease("client-1", TrafficClass.READ);
+    awaitingConnection.set(10);
+    assertThat(reject("client-1", TrafficClass.READ).getStatus())
+        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    admitAndRelease("client-1", TrafficClass.WRITE);
+  }
+
+  @Test
+  @DisplayName("Deve descartar a busca acima do limite de concorrência até uma ser liberada.")
+  void concurrencyLimitTest() {
+    // cenário
+    admission.admit("client-1", ENDPOINT, TrafficClass.SEARCH);
+
+    // execução
+    AdmissionRejectedException exception = reject("client-2", TrafficClass.SEARCH);
+
+    // verificação
+    assertThat(exception.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(admission.inFlight(TrafficClass.SEARCH)).isEqualTo(1);
+    admission.release(TrafficClass.SEARCH);
+    assertThat(admission.inFlight(TrafficClass.SEARCH)).isZero();
+    admitAndRelease("client-2", TrafficClass.SEARCH);
+  }
+
+  private void admitAndRelease(String client, TrafficClass trafficClass) {
+    admission.admit(client, ENDPOINT, trafficClass);
+    admission.release(trafficClass);
+  }
+
+  private AdmissionRejectedException reject(String client, TrafficClass trafficClass) {
+    return catchThrowableOfType(() -> admission.admit(client, ENDPOINT, trafficClass),
+        AdmissionRejectedException.class);
+  }
+
+}
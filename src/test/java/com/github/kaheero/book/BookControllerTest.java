@@ -1,13 +1,31 @@
 package com.github.kaheero.book;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.pagination.Cursors;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,15 +35,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -33,7 +55,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 @ActiveProfiles("test")
 @WebMvcTest(controllers = BookController.class)
 @AutoConfigureMockMvc
-@ComponentScan(basePackages = "com.github.kaheero")
+@Import({BookMapperImpl.class, BookPageCache.class})
 class BookControllerTest {
 
   private static final String API_PATH_BOOKS = "/books";
@@ -41,9 +63,17 @@ class BookControllerTest {
   @Autowired
   private MockMvc mvc;
 
+  @Autowired
+  private BookPageCache pageCache;
+
   @MockBean
   private BookService bookService;
 
+  @BeforeEach
+  void setup() {
+    pageCache.invalidate();
+  }
+
   @Test
   @DisplayName("Deve criar um livro com sucesso.")
   void createBookTest() throws Exception {
@@ -326,6 +356,430 @@ class BookControllerTest {
         .andExpect(jsonPath("pageable.pageSize").value(totalOfElementsPerPage));
   }
 
+  @Test
+  @DisplayName("Deve importar livros em lote a partir de NDJSON.")
+  void importBooksFromNdjsonTest() throws Exception {
+    // cenário
+    ObjectMapper objectMapper = new ObjectMapper();
+    String payload = String.join("\n",
+        objectMapper.writeValueAsString(buildBookDTO()),
+        objectMapper.writeValueAsString(BookDTO.builder().title("sem autor").build()),
+        objectMapper.writeValueAsString(buildBookDTO()));
+
+    BDDMockito
+        .given(bookService.saveAll(Mockito.anyList()))
+        .willReturn(Collections.singletonList(BookEntity.builder().id(1L).build()));
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .post(API_PATH_BOOKS.concat("/_import"))
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .content(payload);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("received").value(3))
+        .andExpect(jsonPath("imported").value(1))
+        .andExpect(jsonPath("duplicated").value(1))
+        .andExpect(jsonPath("invalid").value(1))
+        .andExpect(jsonPath("rowsPerSecond").isNumber());
+    Mockito.verify(bookService, Mockito.times(1)).saveAll(Mockito.anyList());
+  }
+
+  @Test
+  @DisplayName("Deve importar livros em lote a partir de um array JSON.")
+  void importBooksFromJsonArrayTest() throws Exception {
+    // cenário
+    String payload = new ObjectMapper()
+        .writeValueAsString(Collections.singletonList(buildBookDTO()));
+
+    BDDMockito
+        .given(bookService.saveAll(Mockito.anyList()))
+        .willReturn(Collections.singletonList(BookEntity.builder().id(1L).build()));
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .post(API_PATH_BOOKS.concat("/_import"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .content(payload);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("received").value(1))
+        .andExpect(jsonPath("imported").value(1));
+  }
+
+  @Test
+  @DisplayName("Deve informar ETag e Last-Modified ao obter um livro.")
+  void returnBookValidatorsTest() throws Exception {
+    // cenário
+    BookEntity book = BookEntity.builder()
+        .id(1L)
+        .title("Duna")
+        .author("Frank Herbert")
+        .isbn("978-85-7657-313-5")
+        .version(3L)
+        .lastModified(Instant.parse("2022-06-01T10:15:30Z"))
+        .build();
+    BDDMockito.given(bookService.getBookById(1L)).willReturn(Optional.of(book));
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("/1"))
+        .accept(MediaType.APPLICATION_JSON);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+        .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 Jun 2022 10:15:30 GMT"));
+    Mockito.verify(bookService, Mockito.never()).getBookVersion(Mockito.anyLong());
+  }
+
+  @Test
+  @DisplayName("Deve responder 304 sem carregar o livro quando a ETag não mudou.")
+  void notModifiedBookTest() throws Exception {
+    // cenário
+    BDDMockito.given(bookService.getBookVersion(1L)).willReturn(Optional.of(version(3L)));
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("/1"))
+        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+        .accept(MediaType.APPLICATION_JSON);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+    Mockito.verify(bookService, Mockito.never()).getBookById(Mockito.anyLong());
+  }
+
+  @Test
+  @DisplayName("Deve responder 304 para uma página de resultados que não mudou.")
+  void notModifiedPageTest() throws Exception {
+    // cenário
+    BookEntity book = BookEntity.builder().id(1L).title("Duna").version(3L).build();
+    BDDMockito
+        .given(bookService.find(Mockito.any(BookEntity.class), Mockito.any(Pageable.class)))
+        .willReturn(new PageImpl<>(Collections.singletonList(book), PageRequest.of(0, 10), 1));
+    String eTag = mvc.perform(MockMvcRequestBuilders.get(API_PATH_BOOKS.concat("?title=duna")))
+        .andExpect(status().isPartialContent())
+        .andReturn()
+        .getResponse()
+        .getHeader(HttpHeaders.ETAG);
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("?title=duna"))
+        .header(HttpHeaders.IF_NONE_MATCH, eTag);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+    book.setVersion(4L);
+    pageCache.invalidate();
+    mvc.perform(request)
+        .andExpect(status().isPartialContent())
+        .andExpect(jsonPath("content[0].title").value("Duna"));
+  }
+
+  @Test
+  @DisplayName("Deve servir páginas repetidas já serializadas e compactadas com gzip.")
+  void findCachedCompressedPageTest() throws Exception {
+    // cenário
+    List<BookEntity> books = IntStream.rangeClosed(1, 20)
+        .mapToObj(id -> BookEntity.builder().id((long) id).title("Duna " + id)
+            .author("Frank Herbert").isbn("978-85-7657-313-" + id).version(0L).build())
+        .collect(Collectors.toList());
+    BDDMockito
+        .given(bookService.find(Mockito.any(BookEntity.class), Mockito.any(Pageable.class)))
+        .willReturn(new PageImpl<>(books, PageRequest.of(0, 20), 20));
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("?title=duna&size=20"))
+        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8");
+    String plain = mvc
+        .perform(MockMvcRequestBuilders.get(API_PATH_BOOKS.concat("?title=duna&size=20")))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+
+    // execução
+    MvcResult result = mvc.perform(request)
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+        .andReturn();
+
+    // verificação
+    String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+    Assertions.assertThat(eTag).endsWith("-gzip\"");
+    mvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+    mvc.perform(MockMvcRequestBuilders.get(API_PATH_BOOKS.concat("?title=duna&size=20"))
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    byte[] compressed = result.getResponse().getContentAsByteArray();
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo(plain);
+    }
+    Assertions.assertThat(compressed.length).isLessThan(plain.length());
+    Mockito.verify(bookService, Mockito.times(1))
+        .find(Mockito.any(BookEntity.class), Mockito.any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Deve recusar com 412 a atualização de uma versão desatualizada.")
+  void updateStaleBookTest() throws Exception {
+    // cenário
+    BookEntity book = BookEntity.builder().id(1L).title("Duna").version(4L).build();
+    BDDMockito.given(bookService.getBookById(1L)).willReturn(Optional.of(book));
+    BDDMockito
+        .given(bookService.update(Mockito.any(BookEntity.class)))
+        .willThrow(new ObjectOptimisticLockingFailureException(BookEntity.class, 1L));
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .put(API_PATH_BOOKS.concat("/1"))
+        .header(HttpHeaders.IF_MATCH, "\"3\"")
+        .content(new ObjectMapper().writeValueAsString(buildBookDTO()))
+        .contentType(MediaType.APPLICATION_JSON);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isPreconditionFailed());
+    Mockito.verify(bookService).update(Mockito.argThat(updating -> updating.getVersion() == 3L));
+  }
+
+  @Test
+  @DisplayName("Deve exportar todos os livros em NDJSON.")
+  void exportBooksTest() throws Exception {
+    // cenário
+    Mockito
+        .doAnswer(invocation -> {
+          Consumer<BookEntity> action = invocation.getArgument(0);
+          action.accept(BookEntity.builder().id(1L).title("Duna").author("Frank Herbert")
+              .isbn("978-85-7657-313-5").build());
+          action.accept(BookEntity.builder().id(2L).title("Emma").author("Jane Austen")
+              .isbn("978-85-7232-123-0").build());
+          return null;
+        })
+        .when(bookService).export(Mockito.any());
+
+    // execução
+    MvcResult result = mvc.perform(MockMvcRequestBuilders
+            .get(API_PATH_BOOKS.concat("/_export"))
+            .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // verificação
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(
+            "{\"id\":1,\"title\":\"Duna\",\"author\":\"Frank Herbert\",\"isbn\":\"978-85-7657-313-5\"}\n"
+                + "{\"id\":2,\"title\":\"Emma\",\"author\":\"Jane Austen\",\"isbn\":\"978-85-7232-123-0\"}\n"));
+  }
+
+  @Test
+  @DisplayName("Deve filtrar livros sem o total quando a contagem for desligada.")
+  void findBookWithoutCountTest() throws Exception {
+    // cenário
+    BookEntity book = BookEntity.builder()
+        .id(1L)
+        .title(buildBookDTO().getTitle())
+        .author(buildBookDTO().getAuthor())
+        .isbn(buildBookDTO().getIsbn())
+        .build();
+
+    BDDMockito
+        .given(bookService.findSlice(Mockito.any(BookEntity.class), Mockito.any(Pageable.class)))
+        .willReturn(new SliceImpl<>(Collections.singletonList(book), PageRequest.of(0, 1), true));
+
+    // execução
+    MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("?title=aventuras&page=0&size=1&count=NONE"))
+        .accept(MediaType.APPLICATION_JSON);
+
+    // verificação
+    mvc.perform(requestBuilder)
+        .andExpect(status().isPartialContent())
+        .andExpect(jsonPath("content", Matchers.hasSize(1)))
+        .andExpect(jsonPath("last").value(false))
+        .andExpect(jsonPath("totalElements").doesNotExist());
+    Mockito
+        .verify(bookService, Mockito.never())
+        .find(Mockito.any(BookEntity.class), Mockito.any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Deve filtrar livros com o total estimado.")
+  void findBookWithEstimatedCountTest() throws Exception {
+    // cenário
+    BookEntity book = BookEntity.builder().id(1L).build();
+
+    BDDMockito
+        .given(bookService.findWithEstimatedTotal(Mockito.any(BookEntity.class),
+            Mockito.any(Pageable.class)))
+        .willReturn(new PageImpl<>(Collections.singletonList(book), PageRequest.of(0, 1), 40));
+
+    // execução
+    MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("?page=0&size=1&count=ESTIMATED"))
+        .accept(MediaType.APPLICATION_JSON);
+
+    // verificação
+    mvc.perform(requestBuilder)
+        .andExpect(status().isPartialContent())
+        .andExpect(jsonPath("totalElements").value(40));
+  }
+
+  @Test
+  @DisplayName("Deve buscar livros em lote por ids e isbns mantendo a ordem do pedido.")
+  void findBatchTest() throws Exception {
+    // cenário
+    BookEntity duna = BookEntity.builder().id(1L).title("Duna").author("Frank Herbert")
+        .isbn("978-85-7657-313-5").build();
+    BookEntity emma = BookEntity.builder().id(2L).title("Emma").author("Jane Austen")
+        .isbn("978-85-7232-123-0").build();
+    BDDMockito
+        .given(bookService.getBooksByIds(Arrays.asList(2L, 9L, 1L)))
+        .willReturn(Map.of(1L, duna, 2L, emma));
+    BDDMockito
+        .given(bookService.getBooksByIsbns(Arrays.asList("000", "978-85-7657-313-5")))
+        .willReturn(Map.of("978-85-7657-313-5", duna));
+    BookBatchRequest batch = BookBatchRequest.builder()
+        .ids(Arrays.asList(2L, 9L, 1L))
+        .isbns(Arrays.asList("000", "978-85-7657-313-5"))
+        .build();
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .post(API_PATH_BOOKS.concat("/_batch"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(new ObjectMapper().writeValueAsString(batch));
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("ids[*].id").value(Matchers.contains(2, 9, 1)))
+        .andExpect(jsonPath("ids[*].found").value(Matchers.contains(true, false, true)))
+        .andExpect(jsonPath("ids[0].book.title").value("Emma"))
+        .andExpect(jsonPath("ids[1].book").doesNotExist())
+        .andExpect(jsonPath("isbns[0].found").value(false))
+        .andExpect(jsonPath("isbns[1].book.id").value(1));
+    Mockito.verify(bookService, Mockito.never()).getBookById(Mockito.anyLong());
+  }
+
+  @Test
+  @DisplayName("Deve recusar lotes com mais chaves que o limite.")
+  void findOversizedBatchTest() throws Exception {
+    // cenário
+    BookBatchRequest batch = BookBatchRequest.builder()
+        .ids(LongStream.rangeClosed(0, BookBatchRequest.MAX_KEYS).boxed()
+            .collect(Collectors.toList()))
+        .build();
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .post(API_PATH_BOOKS.concat("/_batch"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(new ObjectMapper().writeValueAsString(batch));
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isBadRequest());
+    Mockito.verifyNoInteractions(bookService);
+  }
+
+  @Test
+  @DisplayName("Deve recusar lotes com listas nulas.")
+  void findNullBatchTest() throws Exception {
+    // cenário
+    String batch = "{\"ids\": null, \"isbns\": [\"978-85-7657-313-5\"]}";
+
+    // execução
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+        .post(API_PATH_BOOKS.concat("/_batch"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(batch);
+
+    // verificação
+    mvc.perform(request)
+        .andExpect(status().isBadRequest());
+    Mockito.verifyNoInteractions(bookService);
+  }
+
+  @Test
+  @DisplayName("Deve filtrar livros por cursor sem contar o total.")
+  void findBookAfterCursorTest() throws Exception {
+    // cenário
+    BookEntity book = BookEntity.builder()
+        .id(7L)
+        .title(buildBookDTO().getTitle())
+        .author(buildBookDTO().getAuthor())
+        .isbn(buildBookDTO().getIsbn())
+        .build();
+
+    BDDMockito
+        .given(bookService.findAfter(Mockito.any(BookEntity.class), Mockito.eq(5L),
+            Mockito.eq(1)))
+        .willReturn(new SliceImpl<>(Collections.singletonList(book), Pageable.ofSize(1), true));
+
+    final String queryString = String.format("?title=%s&cursor=%s&size=1",
+        book.getTitle(), Cursors.encode(5L));
+
+    // execução
+    MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat(queryString))
+        .accept(MediaType.APPLICATION_JSON);
+
+    // verificação
+    mvc.perform(requestBuilder)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("content", Matchers.hasSize(1)))
+        .andExpect(jsonPath("content[0].id").value(7))
+        .andExpect(jsonPath("next").value(Cursors.encode(7L)))
+        .andExpect(jsonPath("totalElements").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Deve retornar erro ao filtrar livros com cursor inválido.")
+  void findBookWithInvalidCursorTest() throws Exception {
+    MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+        .get(API_PATH_BOOKS.concat("?cursor=???"))
+        .accept(MediaType.APPLICATION_JSON);
+
+    mvc.perform(requestBuilder)
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("errors[0]").value("Invalid cursor"));
+  }
+
+  private BookVersion version(Long version) {
+    return new BookVersion() {
+      @Override
+      public Long getVersion() {
+        return version;
+      }
+
+      @Override
+      public Instant getLastModified() {
+        return Instant.parse("2022-06-01T10:15:30Z");
+      }
+    };
+  }
+
   private BookDTO buildBookDTO() {
     return BookDTO.builder()
         .title("As aventuras")
@@ -0,0 +1,69 @@
+package com.github.kaheero.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.engine.reporting.FailureHandler;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class BookIndexingSynchronizationTest {
+
+  @Test
+  @DisplayName("Deve invalidar as páginas em cache quando a indexação assíncrona terminar.")
+  void invalidatePagesAfterIndexingTest() {
+    // cenário
+    BookPageCache pageCache = new BookPageCache(Duration.ofMinutes(1), 1024, 1024, Duration.ZERO);
+    List<Object> key = Collections.singletonList("duna");
+    AtomicReference<Consumer<CompletableFuture<SearchIndexingPlanExecutionReport>>> handler =
+        new AtomicReference<>();
+    AtomicReference<DocumentCommitStrategy> commit = new AtomicReference<>();
+    new BookIndexingSynchronization(pageCache).apply(
+        new AutomaticIndexingSynchronizationConfigurationContext() {
+          @Override
+          public void documentCommitStrategy(DocumentCommitStrategy strategy) {
+            commit.set(strategy);
+          }
+
+          @Override
+          public void documentRefreshStrategy(DocumentRefreshStrategy strategy) {
+          }
+
+          @Override
+          public void indexingFutureHandler(
+              Consumer<CompletableFuture<SearchIndexingPlanExecutionReport>> consumer) {
+            handler.set(consumer);
+          }
+
+          @Override
+          public FailureHandler failureHandler() {
+            return Mockito.mock(FailureHandler.class);
+          }
+        });
+    CompletableFuture<SearchIndexingPlanExecutionReport> indexing = new CompletableFuture<>();
+    handler.get().accept(indexing);
+    BookPageCache.Rendered stale = render(pageCache, key);
+
+    // execução
+    indexing.complete(Mockito.mock(SearchIndexingPlanExecutionReport.class));
+
+    // verificação
+    assertThat(commit).hasValue(DocumentCommitStrategy.NONE);
+    assertThat(render(pageCache, key)).isNotSameAs(stale);
+  }
+
+  private static BookPageCache.Rendered render(BookPageCache pageCache, List<Object> key) {
+    return pageCache.get(key, () -> new BookPageCache.Response("\"1\"", new byte[] {'[', ']'}));
+  }
+
+}
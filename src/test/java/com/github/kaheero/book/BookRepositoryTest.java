@@ -1,21 +1,29 @@
 package com.github.kaheero.book;
 
+import com.github.kaheero.exceptions.BusinessException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @DataJpaTest
-@EnableAutoConfiguration
 class BookRepositoryTest {
 
   @Autowired
@@ -25,30 +33,31 @@ class BookRepositoryTest {
   private BookRepository repository;
 
   @Test
-  @DisplayName("Deve retornar verdadeiro quando existir um livro na base com isbn informado.")
-  void returnTrueWhenIsbnExists() {
+  @DisplayName("Deve retornar o livro quando existir um livro na base com isbn informado.")
+  void returnBookWhenIsbnExists() {
     // cenário
     final String isbn = "978-85-7657-313-5";
     entityManager.persist(this.createValidBook());
 
     // execução
-    boolean exists = repository.existsByIsbn(isbn);
+    Optional<BookEntity> book = repository.findByIsbn(isbn);
 
     // verificação
-    Assertions.assertThat(exists).isTrue();
+    Assertions.assertThat(book).hasValueSatisfying(found ->
+        Assertions.assertThat(found.getIsbn()).isEqualTo(isbn));
   }
 
   @Test
-  @DisplayName("Deve retornar falso quando não existir um livro na base com isbn informado.")
-  void returnFalseWhenIsbnDoesntExists() {
+  @DisplayName("Deve retornar vazio quando não existir um livro na base com isbn informado.")
+  void returnEmptyWhenIsbnDoesntExists() {
     // cenário
     final String isbn = "123456";
 
     // execução
-    boolean exists = repository.existsByIsbn(isbn);
+    Optional<BookEntity> book = repository.findByIsbn(isbn);
 
     // verificação
-    Assertions.assertThat(exists).isFalse();
+    Assertions.assertThat(book).isEmpty();
   }
 
   @Test
@@ -81,6 +90,104 @@ class BookRepositoryTest {
     Assertions.assertThat(savedBook.getId()).isNotNull();
   }
 
+  @Test
+  @DisplayName("Deve rejeitar pelo índice único um livro com isbn já cadastrado.")
+  void rejectDuplicatedIsbnTest() {
+    // cenário
+    entityManager.persist(this.createValidBook());
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(
+        () -> repository.saveAndFlush(this.createValidBook()));
+
+    // verificação
+    Assertions.assertThat(throwable).isInstanceOf(DataIntegrityViolationException.class);
+    Assertions.assertThat(((ConstraintViolationException) throwable.getCause())
+        .getConstraintName()).containsIgnoringCase(BookEntity.ISBN_CONSTRAINT);
+  }
+
+  @Test
+  @DisplayName("Deve percorrer todos os livros em ordem de id.")
+  void forEachBookTest() {
+    // cenário
+    BookEntity first = entityManager.persist(BookEntity.builder()
+        .title("Duna").author("Frank Herbert").isbn("978-85-7657-313-5").build());
+    BookEntity second = entityManager.persist(BookEntity.builder()
+        .title("Emma").author("Jane Austen").isbn("978-85-7232-123-0").build());
+    entityManager.flush();
+    List<BookEntity> books = new ArrayList<>();
+
+    // execução
+    repository.forEachBook(books::add);
+
+    // verificação
+    Assertions.assertThat(books)
+        .usingRecursiveFieldByFieldElementComparatorIgnoringFields("version", "lastModified")
+        .containsExactly(first, second);
+  }
+
+  @Test
+  @DisplayName("Deve recusar a ordenação repetida pela mesma propriedade.")
+  void rejectRepeatedSortTest() {
+    // cenário
+    PageRequest pageable = PageRequest.of(0, 10, Sort.by("title", "author", "title"));
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(
+        () -> repository.findMatching(BookEntity.builder().title("duna").build(), pageable));
+
+    // verificação
+    Assertions.assertThat(throwable)
+        .isInstanceOf(BusinessException.class)
+        .hasMessage("books cannot be sorted by title twice");
+  }
+
+  @Test
+  @DisplayName("Deve obter vários livros por isbn em uma única consulta.")
+  void findByIsbnInTest() {
+    // cenário
+    BookEntity book = entityManager.persist(this.createValidBook());
+    entityManager.flush();
+
+    // execução
+    List<BookEntity> books = repository.findByIsbnIn(Arrays.asList(book.getIsbn(), "000"));
+
+    // verificação
+    Assertions.assertThat(books).containsExactly(book);
+  }
+
+  @Test
+  @DisplayName("Deve obter apenas a versão e a data de alteração de um livro.")
+  void findVersionByIdTest() {
+    // cenário
+    BookEntity book = entityManager.persistFlushFind(this.createValidBook());
+
+    // execução
+    Optional<BookVersion> version = repository.findVersionById(book.getId());
+
+    // verificação
+    Assertions.assertThat(version).isPresent();
+    Assertions.assertThat(version.get().getVersion()).isEqualTo(0L);
+    Assertions.assertThat(version.get().getLastModified()).isNotNull();
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar a atualização de uma versão desatualizada.")
+  void rejectStaleUpdateTest() {
+    // cenário
+    BookEntity book = entityManager.persistFlushFind(this.createValidBook());
+    entityManager.detach(book);
+    BookEntity stale = book.toBuilder().title("Outro título").build();
+    book.setTitle("Novo título");
+    repository.saveAndFlush(book);
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> repository.saveAndFlush(stale));
+
+    // verificação
+    Assertions.assertThat(throwable).isInstanceOf(OptimisticLockingFailureException.class);
+  }
+
   @Test
   @DisplayName("Deve deletar um livro com sucesso.")
   void deleteBookTest() {
@@ -97,6 +204,20 @@ class BookRepositoryTest {
     Assertions.assertThat(deleteBook).isNull();
   }
 
+  @Test
+  @DisplayName("Deve retornar apenas os isbns já cadastrados de um lote.")
+  void findExistingIsbnsTest() {
+    // cenário
+    entityManager.persist(this.createValidBook());
+
+    // execução
+    Set<String> existing = repository.findExistingIsbns(
+        Arrays.asList("978-85-7657-313-5", "978-00-0000-000-0"));
+
+    // verificação
+    Assertions.assertThat(existing).containsExactly("978-85-7657-313-5");
+  }
+
   private BookEntity createValidBook() {
     return BookEntity.builder()
         .title("Duna")
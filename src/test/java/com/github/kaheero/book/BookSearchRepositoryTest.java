@@ -0,0 +1,187 @@
+package com.github.kaheero.book;
+
+import com.github.kaheero.exceptions.BusinessException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties =
+    "spring.jpa.properties.hibernate.search.automatic_indexing.synchronization.strategy=sync")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookSearchRepositoryTest {
+
+  @Autowired
+  private BookRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @BeforeEach
+  public void setup() {
+    repository.saveAll(Arrays.asList(
+        createBook("Duna", "Frank Herbert", "978-85-7657-313-5"),
+        createBook("Os Filhos de Duna", "Frank Herbert", "978-85-7657-400-2"),
+        createBook("Vinte mil léguas submarinas", "Julio Verne", "978-85-7232-123-0")));
+  }
+
+  @AfterEach
+  public void cleanup() {
+    repository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Deve encontrar livros que contenham o texto informado ignorando maiúsculas.")
+  void searchContainingIgnoringCaseTest() {
+    BookEntity probe = BookEntity.builder().title("DUNA").build();
+
+    Page<BookEntity> page = repository.search(probe, PageRequest.of(0, 10));
+
+    Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+    Assertions.assertThat(page.getContent())
+        .extracting(BookEntity::getTitle)
+        .containsExactly("Duna", "Os Filhos de Duna");
+  }
+
+  @Test
+  @DisplayName("Deve exigir o texto contínuo e não apenas os mesmos trigramas.")
+  void searchRequiresContiguousTextTest() {
+    BookEntity probe = BookEntity.builder().title("duna filhos").build();
+
+    Page<BookEntity> page = repository.search(probe, PageRequest.of(0, 10));
+
+    Assertions.assertThat(page.getContent()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Deve combinar os filtros e respeitar a ordenação e a paginação.")
+  void searchCombinedFiltersSortedAndPagedTest() {
+    BookEntity probe = BookEntity.builder().author("herbert").isbn("85-7657").build();
+
+    Page<BookEntity> page = repository.search(probe,
+        PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "title")));
+
+    Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+    Assertions.assertThat(page.getContent())
+        .extracting(BookEntity::getTitle)
+        .containsExactly("Os Filhos de Duna");
+  }
+
+  @Test
+  @DisplayName("Deve paginar por cursor no índice e no banco com o mesmo resultado.")
+  void searchAfterCursorTest() {
+    BookEntity probe = BookEntity.builder().author("herbert").build();
+    Long firstId = repository.search(probe, PageRequest.of(0, 1)).getContent().get(0).getId();
+
+    List<BookEntity> indexed = repository.searchAfter(probe, firstId, 10);
+    List<BookEntity> queried = repository.findAfter(probe, firstId, 10);
+
+    Assertions.assertThat(indexed)
+        .extracting(BookEntity::getTitle)
+        .containsExactly("Os Filhos de Duna");
+    Assertions.assertThat(queried)
+        .extracting(BookEntity::getId)
+        .containsExactlyElementsOf(indexed.stream().map(BookEntity::getId)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  @DisplayName("Deve paginar sem contagem informando se há próxima página.")
+  void findSliceTest() {
+    BookEntity probe = BookEntity.builder().title("DUNA").build();
+
+    Slice<BookEntity> first = repository.findSlice(probe,
+        PageRequest.of(0, 1, Sort.by("title")));
+    Slice<BookEntity> second = repository.findSlice(probe,
+        PageRequest.of(1, 1, Sort.by("title")));
+
+    Assertions.assertThat(first.getContent())
+        .extracting(BookEntity::getTitle)
+        .containsExactly("Duna");
+    Assertions.assertThat(first.hasNext()).isTrue();
+    Assertions.assertThat(second.getContent())
+        .extracting(BookEntity::getTitle)
+        .containsExactly("Os Filhos de Duna");
+    Assertions.assertThat(second.hasNext()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Deve filtrar no banco com a mesma semântica do índice, ordenando e contando.")
+  void findMatchingTest() {
+    BookEntity probe = BookEntity.builder().title("duna").author("HERBERT").build();
+
+    Page<BookEntity> page = repository.findMatching(probe,
+        PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "title")));
+
+    Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+    Assertions.assertThat(page.getContent())
+        .extracting(BookEntity::getTitle)
+        .containsExactly("Os Filhos de Duna");
+    Assertions.assertThat(repository.countMatching(probe)).isEqualTo(2);
+    Assertions.assertThat(repository.countMatching(new BookEntity())).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Deve tratar curingas do filtro como texto literal.")
+  void findMatchingEscapesWildcardsTest() {
+    BookEntity probe = BookEntity.builder().isbn("978_85%").build();
+
+    Page<BookEntity> page = repository.findMatching(probe, PageRequest.of(0, 10));
+
+    Assertions.assertThat(page.getContent()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Deve recusar a ordenação por propriedades desconhecidas.")
+  void findMatchingRejectsUnknownSortTest() {
+    Throwable throwable = Assertions.catchThrowable(() -> repository.findMatching(
+        new BookEntity(), PageRequest.of(0, 10, Sort.by("version"))));
+
+    Assertions.assertThat(throwable).isInstanceOf(BusinessException.class)
+        .hasMessage("books cannot be sorted by version");
+  }
+
+  @Test
+  @DisplayName("Deve deixar para o banco a ordenação que ignora maiúsculas.")
+  void ignoreCaseSortStaysOnDatabaseTest() throws InterruptedException {
+    BookSearchIndex index = new BookSearchIndex(entityManagerFactory);
+    index.rebuild();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!index.isReady() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    BookEntity probe = BookEntity.builder().title("duna").build();
+
+    Assertions.assertThat(index.canSearch(probe, Sort.by("title"))).isTrue();
+    Assertions.assertThat(index.canSearch(probe, Sort.by(Sort.Order.asc("title").ignoreCase())))
+        .isFalse();
+  }
+
+  private BookEntity createBook(String title, String author, String isbn) {
+    return BookEntity.builder()
+        .title(title)
+        .author(author)
+        .isbn(isbn)
+        .build();
+  }
+
+}
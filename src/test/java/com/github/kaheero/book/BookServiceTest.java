@@ -3,11 +3,23 @@ package com.github.kaheero.book;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.pagination.CountMode;
+import com.github.kaheero.routing.ReadYourWrites;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,12 +27,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Example;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -28,12 +45,28 @@ class BookServiceTest {
 
   private BookService service;
 
+  private BookPageCache pageCache;
+
+  private BookReadCoalescer coalescer;
+
+  private ReadYourWrites readYourWrites;
+
   @MockBean
   private BookRepository repository;
 
+  @MockBean
+  private BookSearchIndex searchIndex;
+
   @BeforeEach
   public void setup() {
-    this.service = new BookServiceImpl(repository);
+    this.pageCache = new BookPageCache(Duration.ofMinutes(1), 1 << 20, 1024, Duration.ZERO);
+    this.readYourWrites = new ReadYourWrites(Duration.ofMinutes(1), 100);
+    this.coalescer = new BookReadCoalescer(TransactionOperations.withoutTransaction(),
+        readYourWrites);
+    this.service = new BookServiceImpl(repository, searchIndex,
+        new BookCountCache(Duration.ofMinutes(1), 100, Duration.ZERO),
+        new BookCache(Duration.ofMinutes(1), 100, 100, Duration.ZERO),
+        pageCache, coalescer);
   }
 
   @Test
@@ -47,11 +80,7 @@ class BookServiceTest {
         .build();
 
     Mockito
-        .when(repository.existsByIsbn(Mockito.anyString()))
-        .thenReturn(false);
-
-    Mockito
-        .when(repository.save(book))
+        .when(repository.saveAndFlush(book))
         .thenReturn(BookEntity.builder()
             .id(1L)
             .title("Vinte mil léguas submarinas.")
@@ -69,14 +98,39 @@ class BookServiceTest {
     assertThat(saveBook.getIsbn()).isEqualTo(book.getIsbn());
   }
 
+  @Test
+  @DisplayName("Deve salvar um lote ignorando isbns já cadastrados ou repetidos no lote.")
+  void saveAllBooksTest() {
+    // cenário
+    BookEntity fresh = BookEntity.builder().isbn("1").build();
+    BookEntity repeated = BookEntity.builder().isbn("1").build();
+    BookEntity existing = BookEntity.builder().isbn("2").build();
+
+    Mockito
+        .when(repository.findExistingIsbns(Mockito.anyCollection()))
+        .thenReturn(Collections.singleton("2"));
+    Mockito
+        .when(repository.saveAll(Mockito.anyCollection()))
+        .thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+
+    // execução
+    List<BookEntity> saved = service.saveAll(Arrays.asList(fresh, repeated, existing));
+
+    // verificação
+    assertThat(saved).containsExactly(fresh);
+    assertThat(saved.get(0)).isSameAs(fresh);
+  }
+
   @Test
   @DisplayName("Deve lançar erro de negócio ao tentar salvar um livro com isbn duplicado.")
   void shouldNotSaveABookWithDuplicatedISBN() {
     // cenário
     BookEntity book = this.createValidBook();
     Mockito
-        .when(repository.existsByIsbn(Mockito.anyString()))
-        .thenReturn(true);
+        .when(repository.saveAndFlush(book))
+        .thenThrow(new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicated", null,
+                "PUBLIC.UK_BOOK_ISBN_INDEX_B ON PUBLIC.BOOK_ENTITY(ISBN)")));
 
     // execução
     Throwable throwable = Assertions.catchThrowable(() -> service.save(book));
@@ -85,7 +139,25 @@ class BookServiceTest {
     assertThat(throwable)
         .isInstanceOf(BusinessException.class)
         .hasMessage("isbn já cadastrado");
-    Mockito.verify(repository, Mockito.never()).save(book);
+  }
+
+  @Test
+  @DisplayName("Deve propagar violações de integridade que não sejam do isbn.")
+  void shouldPropagateOtherIntegrityViolations() {
+    // cenário
+    BookEntity book = this.createValidBook();
+    DataIntegrityViolationException violation = new DataIntegrityViolationException(
+        "could not execute statement",
+        new ConstraintViolationException("null title", null, null));
+    Mockito
+        .when(repository.saveAndFlush(book))
+        .thenThrow(violation);
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> service.save(book));
+
+    // verificação
+    assertThat(throwable).isSameAs(violation);
   }
 
   @Test
@@ -146,6 +218,28 @@ class BookServiceTest {
         .delete(book);
   }
 
+  @Test
+  @DisplayName("Deve lançar erro de negócio ao deletar um livro com empréstimos.")
+  void deleteLoanedBookTest() {
+    // cenário
+    BookEntity book = BookEntity.builder()
+        .id(1L)
+        .build();
+    Mockito
+        .doThrow(new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("referenced", null,
+                "FK_LOAN_BOOK: PUBLIC.LOAN_ENTITY")))
+        .when(repository).delete(book);
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> service.delete(book));
+
+    // verificação
+    assertThat(throwable)
+        .isInstanceOf(BusinessException.class)
+        .hasMessage("livro possui empréstimos");
+  }
+
   @Test
   @DisplayName("Deve lançar um erro ao deletar um livro com id inexistente.")
   void deleteBookwithException() {
@@ -236,7 +330,7 @@ class BookServiceTest {
     Page<BookEntity> page = new PageImpl<>(books, pageRequest, 1);
 
     BDDMockito
-            .when(repository.findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class)))
+            .when(repository.findMatching(Mockito.any(BookEntity.class), Mockito.any(PageRequest.class)))
             .thenReturn(page);
 
     // execucao
@@ -251,6 +345,148 @@ class BookServiceTest {
     assertThat(pageOfBooks.getPageable().getPageSize()).isEqualTo(TOTAL_ELEMENTS_FOR_PAGE);
   }
 
+  @Test
+  @DisplayName("Deve filtrar os livros pelo índice de busca quando ele estiver disponível")
+  void findBookOnSearchIndexTest() {
+    // cenario
+    BookEntity book = this.createValidBook();
+    PageRequest pageRequest = PageRequest.of(0, 10);
+    Page<BookEntity> page = new PageImpl<>(Collections.singletonList(book), pageRequest, 1);
+
+    BDDMockito
+        .when(searchIndex.canSearch(book, pageRequest.getSort()))
+        .thenReturn(true);
+    BDDMockito
+        .when(repository.search(book, pageRequest))
+        .thenReturn(page);
+
+    // execucao
+    Page<BookEntity> pageOfBooks = service.find(book, pageRequest);
+
+    // verificacao
+    assertThat(pageOfBooks.getContent()).containsExactly(book);
+    Mockito
+        .verify(repository, Mockito.never())
+        .findMatching(Mockito.any(BookEntity.class), Mockito.any(PageRequest.class));
+  }
+
+  @Test
+  @DisplayName("Deve filtrar os livros sem executar a contagem")
+  void findBookSliceTest() {
+    // cenario
+    BookEntity book = this.createValidBook();
+    PageRequest pageRequest = PageRequest.of(0, 1);
+
+    BDDMockito
+        .when(repository.findSlice(book, pageRequest))
+        .thenReturn(new SliceImpl<>(Collections.singletonList(book), pageRequest, true));
+
+    // execucao
+    Slice<BookEntity> slice = service.findSlice(book, pageRequest);
+
+    // verificacao
+    assertThat(slice.getContent()).containsExactly(book);
+    assertThat(slice.hasNext()).isTrue();
+    Mockito
+        .verify(repository, Mockito.never())
+        .countMatching(Mockito.any(BookEntity.class));
+  }
+
+  @Test
+  @DisplayName("Deve reaproveitar a contagem estimada entre páginas até uma escrita no catálogo")
+  void findBookWithEstimatedTotalTest() {
+    // cenario
+    BookEntity book = this.createValidBook();
+    PageRequest firstPage = PageRequest.of(0, 1);
+    PageRequest secondPage = PageRequest.of(1, 1);
+
+    BDDMockito
+        .when(repository.findSlice(Mockito.eq(book), Mockito.any(PageRequest.class)))
+        .thenReturn(new SliceImpl<>(Collections.singletonList(book), firstPage, true));
+    BDDMockito
+        .when(repository.countMatching(Mockito.any(BookEntity.class)))
+        .thenReturn(40L);
+
+    // execucao
+    Page<BookEntity> first = service.findWithEstimatedTotal(book, firstPage);
+    Page<BookEntity> second = service.findWithEstimatedTotal(book, secondPage);
+    service.delete(BookEntity.builder().id(1L).build());
+    service.findWithEstimatedTotal(book, firstPage);
+
+    // verificacao
+    assertThat(first.getTotalElements()).isEqualTo(40);
+    assertThat(second.getTotalElements()).isEqualTo(40);
+    Mockito
+        .verify(repository, Mockito.times(2))
+        .countMatching(Mockito.any(BookEntity.class));
+  }
+
+  @Test
+  @DisplayName("Deve usar o total exato na última página da contagem estimada")
+  void findBookWithEstimatedTotalOnLastPageTest() {
+    // cenario
+    BookEntity book = this.createValidBook();
+    PageRequest pageRequest = PageRequest.of(2, 10);
+
+    BDDMockito
+        .when(repository.findSlice(book, pageRequest))
+        .thenReturn(new SliceImpl<>(Collections.singletonList(book), pageRequest, false));
+
+    // execucao
+    Page<BookEntity> page = service.findWithEstimatedTotal(book, pageRequest);
+
+    // verificacao
+    assertThat(page.getTotalElements()).isEqualTo(21);
+    Mockito
+        .verify(repository, Mockito.never())
+        .countMatching(Mockito.any(BookEntity.class));
+  }
+
+  @Test
+  @DisplayName("Deve paginar por cursor buscando um livro a mais para saber se há próxima página")
+  void findBookAfterCursorTest() {
+    // cenario
+    BookEntity probe = BookEntity.builder().build();
+    BookEntity first = BookEntity.builder().id(11L).build();
+    BookEntity second = BookEntity.builder().id(12L).build();
+
+    BDDMockito
+        .when(repository.findAfter(probe, 10L, 2))
+        .thenReturn(Arrays.asList(first, second));
+
+    // execucao
+    Slice<BookEntity> slice = service.findAfter(probe, 10L, 1);
+
+    // verificacao
+    assertThat(slice.getContent()).containsExactly(first);
+    assertThat(slice.hasNext()).isTrue();
+    Mockito
+        .verify(repository, Mockito.never())
+        .searchAfter(Mockito.any(), Mockito.any(), Mockito.anyInt());
+  }
+
+  @Test
+  @DisplayName("Deve paginar por cursor pelo índice de busca quando ele estiver disponível")
+  void findBookAfterCursorOnSearchIndexTest() {
+    // cenario
+    BookEntity probe = BookEntity.builder().title("Duna").build();
+    BookEntity book = BookEntity.builder().id(11L).title("Duna").build();
+
+    BDDMockito
+        .when(searchIndex.canSearch(probe, Sort.unsorted()))
+        .thenReturn(true);
+    BDDMockito
+        .when(repository.searchAfter(probe, null, 21))
+        .thenReturn(Collections.singletonList(book));
+
+    // execucao
+    Slice<BookEntity> slice = service.findAfter(probe, null, 20);
+
+    // verificacao
+    assertThat(slice.getContent()).containsExactly(book);
+    assertThat(slice.hasNext()).isFalse();
+  }
+
   @Test
   @DisplayName("Deve obter um livro pelo isbn")
   public void getBookByIsbnTest() {
@@ -274,6 +510,290 @@ class BookServiceTest {
     Mockito.verify(repository, Mockito.times(1)).findByIsbn(isbn);
   }
 
+  @Test
+  @DisplayName("Deve resolver o id pelo isbn consultando só o id, uma única vez")
+  void getBookIdByIsbnFromCacheTest() {
+    // cenário
+    Mockito
+        .when(repository.findIdByIsbn("1230"))
+        .thenReturn(Optional.of(1L));
+
+    // execução
+    service.getBookIdByIsbn("1230");
+    Optional<Long> id = service.getBookIdByIsbn("1230");
+
+    // verificação
+    assertThat(id).contains(1L);
+    Mockito.verify(repository, Mockito.times(1)).findIdByIsbn("1230");
+    Mockito.verify(repository, Mockito.never()).findByIsbn(Mockito.anyString());
+  }
+
+  @Test
+  @DisplayName("Deve retornar vazio sem consultar a base quando o isbn não for informado")
+  void getBookByMissingIsbnTest() {
+    // execução
+    Optional<Long> id = service.getBookIdByIsbn(null);
+    Optional<BookEntity> book = service.getBookByIsbn(null);
+    Optional<Long> emptyId = service.getBookIdByIsbn("");
+
+    // verificação
+    assertThat(id).isEmpty();
+    assertThat(book).isEmpty();
+    assertThat(emptyId).isEmpty();
+    Mockito.verifyNoInteractions(repository);
+  }
+
+  @Test
+  @DisplayName("Deve esquecer o id do isbn quando o livro for removido")
+  void getBookIdByIsbnAfterDeleteTest() {
+    // cenário
+    BookEntity book = BookEntity.builder().id(1L).isbn("1230").build();
+    Mockito
+        .when(repository.findIdByIsbn("1230"))
+        .thenReturn(Optional.of(1L), Optional.empty());
+    service.getBookIdByIsbn("1230");
+
+    // execução
+    service.delete(book);
+    Optional<Long> id = service.getBookIdByIsbn("1230");
+
+    // verificação
+    assertThat(id).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Deve obter o livro do cache nas leituras seguintes por id")
+  void getBookByIdFromCacheTest() {
+    // cenário
+    BookEntity book = this.createValidBook();
+    book.setId(1L);
+
+    Mockito
+        .when(repository.findById(1L))
+        .thenReturn(Optional.of(book));
+
+    // execução
+    service.getBookById(1L);
+    Optional<BookEntity> cached = service.getBookById(1L);
+
+    // verificação
+    assertThat(cached).contains(book);
+    assertThat(cached.get()).isNotSameAs(book);
+    Mockito.verify(repository, Mockito.times(1)).findById(1L);
+  }
+
+  @Test
+  @DisplayName("Deve carregar em lote apenas os ids que faltam no cache")
+  void getBooksByIdsLoadsOnlyMissesTest() {
+    // cenário
+    BookEntity first = this.createValidBook().toBuilder().id(1L).build();
+    BookEntity second = this.createValidBook().toBuilder().id(2L).isbn("456").build();
+    Mockito
+        .when(repository.findAllById(Arrays.asList(1L, 2L, 3L)))
+        .thenReturn(Arrays.asList(first, second));
+    Mockito
+        .when(repository.findAllById(Collections.singletonList(3L)))
+        .thenReturn(Collections.emptyList());
+    service.getBooksByIds(Arrays.asList(1L, 2L, 3L));
+
+    // execução
+    Map<Long, BookEntity> books = service.getBooksByIds(Arrays.asList(3L, 2L, 1L, 2L));
+
+    // verificação
+    assertThat(books).containsOnlyKeys(1L, 2L);
+    assertThat(books.get(2L)).isEqualTo(second).isNotSameAs(second);
+    Mockito.verify(repository).findAllById(Collections.singletonList(3L));
+    Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+  }
+
+  @Test
+  @DisplayName("Não deve guardar no cache o lote lido antes de uma atualização concorrente")
+  void getBooksByIdsSkipsBooksUpdatedDuringLoadTest() {
+    // cenário
+    BookEntity book = this.createValidBook().toBuilder().id(1L).build();
+    Mockito
+        .when(repository.save(book))
+        .thenReturn(book);
+    Mockito
+        .when(repository.findAllById(Collections.singletonList(1L)))
+        .thenAnswer(invocation -> {
+          service.update(book);
+          return Collections.singletonList(book);
+        })
+        .thenReturn(Collections.singletonList(book));
+
+    // execução
+    service.getBooksByIds(Collections.singletonList(1L));
+    Map<Long, BookEntity> books = service.getBooksByIds(Collections.singletonList(1L));
+
+    // verificação
+    assertThat(books).containsOnlyKeys(1L);
+    Mockito.verify(repository, Mockito.times(2)).findAllById(Collections.singletonList(1L));
+  }
+
+  @Test
+  @DisplayName("Deve executar uma única consulta para buscas idênticas simultâneas")
+  void coalesceConcurrentFindTest() throws Exception {
+    // cenário
+    CountDownLatch release = new CountDownLatch(1);
+    Page<BookEntity> page = new PageImpl<>(Collections.singletonList(this.createValidBook()));
+    Mockito
+        .when(repository.findMatching(Mockito.any(BookEntity.class), Mockito.any(Pageable.class)))
+        .thenAnswer(invocation -> {
+          release.await(5, TimeUnit.SECONDS);
+          return page;
+        });
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    // execução
+    List<Future<Page<BookEntity>>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> service.find(
+          BookEntity.builder().author("Verne").build(), PageRequest.of(0, 10))));
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (coalescer.coalesced() < 7 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+
+    // verificação
+    for (Future<Page<BookEntity>> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(page);
+    }
+    executor.shutdown();
+    assertThat(coalescer.coalesced()).isEqualTo(7);
+    Mockito.verify(repository, Mockito.times(1))
+        .findMatching(Mockito.any(BookEntity.class), Mockito.any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Não deve juntar a busca de um cliente preso ao primário com a de outro cliente")
+  void doNotCoalescePinnedWithUnpinnedFindTest() throws Exception {
+    // cenário
+    CountDownLatch started = new CountDownLatch(2);
+    Page<BookEntity> page = new PageImpl<>(Collections.singletonList(this.createValidBook()));
+    Mockito
+        .when(repository.findMatching(Mockito.any(BookEntity.class), Mockito.any(Pageable.class)))
+        .thenAnswer(invocation -> {
+          started.countDown();
+          started.await(5, TimeUnit.SECONDS);
+          return page;
+        });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // execução
+    Future<Page<BookEntity>> pinned = executor.submit(() -> findAs("writer", true));
+    Future<Page<BookEntity>> unpinned = executor.submit(() -> findAs("reader", false));
+
+    // verificação
+    assertThat(pinned.get(5, TimeUnit.SECONDS)).isSameAs(page);
+    assertThat(unpinned.get(5, TimeUnit.SECONDS)).isSameAs(page);
+    executor.shutdown();
+    assertThat(started.getCount()).isZero();
+    assertThat(coalescer.coalesced()).isZero();
+    Mockito.verify(repository, Mockito.times(2))
+        .findMatching(Mockito.any(BookEntity.class), Mockito.any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Deve propagar o erro da consulta e liberar a chave para as próximas buscas")
+  void coalescedFindFailureTest() {
+    // cenário
+    Mockito
+        .when(repository.findMatching(Mockito.any(BookEntity.class), Mockito.any(Pageable.class)))
+        .thenThrow(new IllegalStateException("database down"));
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(
+        () -> service.find(new BookEntity(), PageRequest.of(0, 10)));
+    Mockito.reset(repository);
+    Page<BookEntity> retry = service.find(new BookEntity(), PageRequest.of(0, 10));
+
+    // verificação
+    assertThat(throwable).isInstanceOf(IllegalStateException.class);
+    assertThat(retry).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve invalidar o cache por id e isbn ao atualizar um livro")
+  void updateBookEvictsCacheTest() {
+    // cenário
+    BookEntity book = this.createValidBook();
+    book.setId(1L);
+
+    Mockito
+        .when(repository.findById(1L))
+        .thenReturn(Optional.of(book));
+    Mockito
+        .when(repository.findByIsbn(book.getIsbn()))
+        .thenReturn(Optional.of(book));
+    Mockito
+        .when(repository.save(book))
+        .thenReturn(book);
+
+    // execução
+    service.getBookById(1L);
+    service.getBookByIsbn(book.getIsbn());
+    service.update(book);
+    service.getBookById(1L);
+    service.getBookByIsbn(book.getIsbn());
+
+    // verificação
+    Mockito.verify(repository, Mockito.times(2)).findById(1L);
+    Mockito.verify(repository, Mockito.times(2)).findByIsbn(book.getIsbn());
+  }
+
+  @Test
+  @DisplayName("Deve invalidar o cache ao deletar um livro")
+  void deleteBookEvictsCacheTest() {
+    // cenário
+    BookEntity book = this.createValidBook();
+    book.setId(1L);
+
+    Mockito
+        .when(repository.findById(1L))
+        .thenReturn(Optional.of(book), Optional.empty());
+
+    // execução
+    service.getBookById(1L);
+    service.delete(book);
+    Optional<BookEntity> deleted = service.getBookById(1L);
+
+    // verificação
+    assertThat(deleted).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Deve descartar as páginas serializadas ao salvar um livro")
+  void saveBookInvalidatesPageCacheTest() {
+    // cenário
+    BookEntity book = this.createValidBook();
+    List<Object> key = BookPageCache.key(book, PageRequest.of(0, 10), CountMode.EXACT);
+    pageCache.get(key, () -> new BookPageCache.Response("\"1\"", new byte[] {1}));
+    Mockito.when(repository.saveAndFlush(book)).thenReturn(book.toBuilder().id(1L).build());
+
+    // execução
+    service.save(book);
+    BookPageCache.Rendered page = pageCache.get(key,
+        () -> new BookPageCache.Response("\"2\"", new byte[] {2}));
+
+    // verificação
+    assertThat(page.getETag()).isEqualTo("\"2\"");
+  }
+
+  private Page<BookEntity> findAs(String client, boolean wrote) {
+    readYourWrites.bind(client);
+    try {
+      if (wrote) {
+        readYourWrites.wrote();
+      }
+      return service.find(BookEntity.builder().author("Verne").build(), PageRequest.of(0, 10));
+    } finally {
+      readYourWrites.clear();
+    }
+  }
+
   private BookEntity createValidBook() {
     return BookEntity.builder()
         .title("Vinte mil léguas submarinas.")
@@ -0,0 +1,162 @@
+package com.github.kaheero.book;
+
+import java.util.Arrays;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "reactive"})
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+class ReactiveBookControllerTest {
+
+  private static final String API_PATH_BOOKS = "/books";
+
+  @Autowired
+  WebTestClient client;
+
+  @Autowired
+  ReactiveBookRepository repository;
+
+  @AfterEach
+  public void cleanup() {
+    repository.deleteAll().block();
+  }
+
+  @Test
+  @DisplayName("Deve criar um livro e obtê-lo pelo id.")
+  void createAndGetBookTest() {
+    BookDTO created = client.post().uri(API_PATH_BOOKS)
+        .bodyValue(createBook("Duna", "Frank Herbert", "978-85-7657-313-5"))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(BookDTO.class)
+        .returnResult()
+        .getResponseBody();
+
+    client.get().uri(API_PATH_BOOKS + "/{id}", created.getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("id").isEqualTo(created.getId())
+        .jsonPath("title").isEqualTo("Duna")
+        .jsonPath("isbn").isEqualTo("978-85-7657-313-5");
+  }
+
+  @Test
+  @DisplayName("Deve lançar erro de negócio ao criar um livro com isbn duplicado.")
+  void createBookWithDuplicatedIsbnTest() {
+    BookDTO book = createBook("Duna", "Frank Herbert", "978-85-7657-313-5");
+    client.post().uri(API_PATH_BOOKS).bodyValue(book).exchange().expectStatus().isCreated();
+
+    client.post().uri(API_PATH_BOOKS)
+        .bodyValue(book)
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("errors[0]").isEqualTo("isbn já cadastrado");
+  }
+
+  @Test
+  @DisplayName("Deve lançar erro de validação quando não houver dados suficientes.")
+  void createInvalidBookTest() {
+    client.post().uri(API_PATH_BOOKS)
+        .bodyValue(new BookDTO())
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("errors").value(Matchers.hasSize(3));
+  }
+
+  @Test
+  @DisplayName("Deve retornar 404 ao obter um livro inexistente.")
+  void bookNotFoundTest() {
+    client.get().uri(API_PATH_BOOKS + "/{id}", 999)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  @DisplayName("Deve filtrar livros paginados.")
+  void findBooksTest() {
+    saveBooks();
+
+    client.get().uri(API_PATH_BOOKS + "?title=duna&page=0&size=1&sort=title")
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+        .expectBody()
+        .jsonPath("content", Matchers.hasSize(1)).exists()
+        .jsonPath("content[0].title").isEqualTo("Duna")
+        .jsonPath("totalElements").isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Deve transmitir todos os livros filtrados em NDJSON.")
+  void streamBooksTest() {
+    saveBooks();
+
+    client.get().uri(API_PATH_BOOKS + "?author=herbert&sort=isbn")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(BookDTO.class)
+        .value(books -> Assertions.assertThat(books)
+            .extracting(BookDTO::getIsbn)
+            .containsExactly("978-85-7657-313-5", "978-85-7657-400-2"));
+  }
+
+  @Test
+  @DisplayName("Deve atualizar e deletar um livro.")
+  void updateAndDeleteBookTest() {
+    BookDTO created = client.post().uri(API_PATH_BOOKS)
+        .bodyValue(createBook("Duna", "Frank Herbert", "978-85-7657-313-5"))
+        .exchange()
+        .expectBody(BookDTO.class)
+        .returnResult()
+        .getResponseBody();
+
+    client.put().uri(API_PATH_BOOKS + "/{id}", created.getId())
+        .bodyValue(createBook("Messias de Duna", "Frank Herbert", null))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("title").isEqualTo("Messias de Duna")
+        .jsonPath("isbn").isEqualTo("978-85-7657-313-5");
+
+    client.delete().uri(API_PATH_BOOKS + "/{id}", created.getId())
+        .exchange()
+        .expectStatus().isNoContent();
+    client.get().uri(API_PATH_BOOKS + "/{id}", created.getId())
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  private void saveBooks() {
+    Arrays.asList(
+            createBook("Duna", "Frank Herbert", "978-85-7657-313-5"),
+            createBook("Os Filhos de Duna", "Frank Herbert", "978-85-7657-400-2"),
+            createBook("Vinte mil léguas submarinas", "Julio Verne", "978-85-7232-123-0"))
+        .forEach(book -> client.post().uri(API_PATH_BOOKS)
+            .bodyValue(book)
+            .exchange()
+            .expectStatus().isCreated());
+  }
+
+  private BookDTO createBook(String title, String author, String isbn) {
+    return BookDTO.builder().title(title).author(author).isbn(isbn).build();
+  }
+
+}
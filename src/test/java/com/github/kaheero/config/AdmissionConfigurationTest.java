@@ -0,0 +1,62 @@
+package com.github.kaheero.config;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.github.kaheero.routing.ReadYourWritesFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+    "library.admission.enabled=true",
+    "library.admission.search.rate=0.001",
+    "library.admission.search.burst=1"
+})
+@AutoConfigureMockMvc
+class AdmissionConfigurationTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Test
+  @DisplayName("Deve limitar por endereço e endpoint, ignorando o X-Client-Id.")
+  void rateLimitedSearchTest() throws Exception {
+    // cenário
+    mvc.perform(search("10.0.0.1", "client-1"))
+        .andExpect(status().is2xxSuccessful());
+
+    // execução e verificação
+    mvc.perform(search("10.0.0.1", "client-2"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+        .andExpect(jsonPath("errors[0]").value("Too many search requests"));
+    mvc.perform(search("10.0.0.2", "client-1"))
+        .andExpect(status().is2xxSuccessful());
+    mvc.perform(MockMvcRequestBuilders.get("/books/_export")
+            .with(request -> {
+              request.setRemoteAddr("10.0.0.1");
+              return request;
+            }))
+        .andExpect(status().isOk());
+  }
+
+  private static MockHttpServletRequestBuilder search(String address, String client) {
+    return MockMvcRequestBuilders.get("/books")
+        .header(ReadYourWritesFilter.CLIENT_HEADER, client)
+        .with(request -> {
+          request.setRemoteAddr(address);
+          return request;
+        });
+  }
+
+}
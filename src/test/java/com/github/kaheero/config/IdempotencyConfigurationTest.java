@@ -0,0 +1,60 @@
+package com.github.kaheero.config;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.github.kaheero.book.BookRepository;
+import com.github.kaheero.idempotency.IdempotencyFilter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyConfigurationTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private BookRepository repository;
+
+  @AfterEach
+  public void cleanup() {
+    repository.findByIsbn("idempotency-1").ifPresent(repository::delete);
+  }
+
+  @Test
+  @DisplayName("Deve criar o livro uma única vez quando o cliente repetir a chave.")
+  void createBookOnceTest() throws Exception {
+    // cenário
+    MockHttpServletRequestBuilder create = MockMvcRequestBuilders.post("/books")
+        .header(IdempotencyFilter.KEY_HEADER, "5f0c7c1e")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"title\":\"Duna\",\"author\":\"Frank Herbert\",\"isbn\":\"idempotency-1\"}");
+    String body = mvc.perform(create)
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+
+    // execução e verificação
+    mvc.perform(create)
+        .andExpect(status().isCreated())
+        .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+        .andExpect(jsonPath("isbn").value("idempotency-1"))
+        .andExpect(result -> Assertions.assertThat(result.getResponse().getContentAsString())
+            .isEqualTo(body));
+    Assertions.assertThat(repository.findByIsbn("idempotency-1")).isPresent();
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.github.kaheero.config;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.github.kaheero.book.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsConfigurationTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private BookService bookService;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @Test
+  @DisplayName("Deve cronometrar os métodos de serviço por classe e método.")
+  void timeServiceMethodsTest() {
+    // execução
+    bookService.getBookVersion(-1L);
+
+    // verificação
+    Assertions.assertThat(registry.get("library.service")
+            .tag("class", "com.github.kaheero.book.BookServiceImpl")
+            .tag("method", "getBookVersion")
+            .timer()
+            .count())
+        .isPositive();
+  }
+
+  @Test
+  @DisplayName("Deve expor as métricas de serviço, repositório, pool e cache para o Prometheus.")
+  void scrapePrometheusTest() throws Exception {
+    // cenário
+    bookService.getBookVersion(-1L);
+    bookService.getBookByIsbn("metrics");
+
+    // execução e verificação
+    mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(Matchers.allOf(
+            Matchers.containsString("library_service_seconds_bucket"),
+            Matchers.containsString("spring_data_repository_invocations_seconds"),
+            Matchers.containsString("hikaricp_connections_active"),
+            Matchers.containsString("cache_gets_total{application=\"ms-library\","
+                + "cache=\"books.byIsbn\""))));
+  }
+
+}
@@ -0,0 +1,258 @@
+package com.github.kaheero.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.kaheero.routing.ReadYourWritesFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+class IdempotencyFilterTest {
+
+  private IdempotencyStore store;
+  private IdempotencyFilter filter;
+  private AtomicInteger executions;
+
+  @BeforeEach
+  public void setup() {
+    store = new IdempotencyStore(Duration.ofMinutes(1), 100);
+    filter = new IdempotencyFilter(store, Duration.ofSeconds(5));
+    executions = new AtomicInteger();
+  }
+
+  @Test
+  @DisplayName("Deve devolver a resposta guardada sem executar de novo a criação repetida.")
+  void replayTest() throws Exception {
+    // cenário
+    FilterChain create = created("1");
+    run(post("/loans", "key-1"), create);
+
+    // execução
+    MockHttpServletResponse replay = run(post("/loans", "key-1"), create);
+
+    // verificação
+    assertThat(executions).hasValue(1);
+    assertThat(replay.getStatus()).isEqualTo(201);
+    assertThat(replay.getContentAsString()).isEqualTo("1");
+    assertThat(replay.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+    assertThat(replay.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+  }
+
+  @Test
+  @DisplayName("Deve executar a mesma chave em caminhos diferentes e sem a chave sempre.")
+  void differentScopeTest() throws Exception {
+    // cenário
+    FilterChain create = created("1");
+
+    // execução
+    run(post("/loans", "key-1"), create);
+    run(post("/books", "key-1"), create);
+    run(post("/books", null), create);
+    MockHttpServletResponse unkeyed = run(post("/books", null), create);
+
+    // verificação
+    assertThat(executions).hasValue(4);
+    assertThat(unkeyed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve responder 422 quando a chave for reutilizada com outro corpo.")
+  void differentBodyTest() throws Exception {
+    // cenário
+    FilterChain echo = (request, response) -> {
+      executions.incrementAndGet();
+      ((HttpServletResponse) response).setStatus(201);
+      StreamUtils.copy(request.getInputStream(), response.getOutputStream());
+    };
+    MockHttpServletResponse first = run(post("/loans", "key-1", "{\"isbn\":\"1\"}"), echo);
+
+    // execução
+    MockHttpServletResponse reused = run(post("/loans", "key-1", "{\"isbn\":\"2\"}"), echo);
+
+    // verificação
+    assertThat(first.getContentAsString()).isEqualTo("{\"isbn\":\"1\"}");
+    assertThat(reused.getStatus()).isEqualTo(422);
+    assertThat(executions).hasValue(1);
+    assertThat(run(post("/loans", "key-1", "{\"isbn\":\"1\"}"), echo).getContentAsString())
+        .isEqualTo("{\"isbn\":\"1\"}");
+    assertThat(executions).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Deve executar a mesma chave de clientes diferentes separadamente.")
+  void differentClientTest() throws Exception {
+    // cenário
+    FilterChain create = created("1");
+    MockHttpServletRequest first = post("/loans", "key-1");
+    first.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-1");
+    run(first, create);
+    MockHttpServletRequest otherClient = post("/loans", "key-1");
+    otherClient.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-2");
+    MockHttpServletRequest sameClientOtherAddress = post("/loans", "key-1");
+    sameClientOtherAddress.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-1");
+    sameClientOtherAddress.setRemoteAddr("10.0.0.2");
+    MockHttpServletRequest principal = post("/loans", "key-1");
+    principal.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-1");
+    principal.setUserPrincipal(() -> "client-1");
+    MockHttpServletRequest anonymous = post("/loans", "key-1");
+    anonymous.setRemoteAddr("10.0.0.2");
+
+    // execução
+    MockHttpServletResponse fromOtherClient = run(otherClient, create);
+    MockHttpServletResponse fromOtherAddress = run(sameClientOtherAddress, create);
+    MockHttpServletResponse fromPrincipal = run(principal, create);
+    MockHttpServletResponse fromAnonymous = run(anonymous, create);
+
+    // verificação
+    assertThat(executions).hasValue(4);
+    assertThat(fromOtherClient.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    assertThat(fromOtherAddress.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    assertThat(fromPrincipal.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    assertThat(fromAnonymous.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve esperar a primeira execução quando a repetição chegar durante ela.")
+  void concurrentDuplicateTest() throws Exception {
+    // cenário
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FilterChain slow = (request, response) -> {
+      running.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      created("7").doFilter(request, response);
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // execução
+    Future<MockHttpServletResponse> first = executor.submit(() -> run(post("/loans", "k"), slow));
+    running.await();
+    Future<MockHttpServletResponse> duplicate =
+        executor.submit(() -> run(post("/loans", "k"), slow));
+    Thread.sleep(100);
+    release.countDown();
+
+    // verificação
+    assertThat(first.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("7");
+    MockHttpServletResponse replay = duplicate.get(5, TimeUnit.SECONDS);
+    assertThat(replay.getContentAsString()).isEqualTo("7");
+    assertThat(replay.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    assertThat(executions).hasValue(1);
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("Deve executar de novo quando a primeira execução terminar em erro do servidor.")
+  void serverErrorNotStoredTest() throws Exception {
+    // cenário
+    FilterChain failing = (request, response) -> {
+      executions.incrementAndGet();
+      ((HttpServletResponse) response).setStatus(503);
+    };
+    run(post("/loans", "key-1"), failing);
+
+    // execução
+    MockHttpServletResponse retry = run(post("/loans", "key-1"), created("1"));
+
+    // verificação
+    assertThat(executions).hasValue(2);
+    assertThat(retry.getStatus()).isEqualTo(201);
+    assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve executar de novo quando a primeira execução for recusada com 429.")
+  void rateLimitedNotStoredTest() throws Exception {
+    // cenário
+    FilterChain limited = (request, response) ->
+        ((HttpServletResponse) response).setStatus(429);
+    run(post("/loans", "key-1"), limited);
+
+    // execução
+    MockHttpServletResponse retry = run(post("/loans", "key-1"), created("1"));
+
+    // verificação
+    assertThat(executions).hasValue(1);
+    assertThat(retry.getStatus()).isEqualTo(201);
+    assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve responder 409 quando a primeira execução demorar além da espera.")
+  void waitTimeoutTest() throws Exception {
+    // cenário
+    filter = new IdempotencyFilter(store, Duration.ofMillis(50));
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.submit(() -> run(post("/loans", "k"), (request, response) -> {
+      try {
+        release.await();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    Thread.sleep(100);
+
+    // execução
+    MockHttpServletResponse duplicate = run(post("/loans", "k"), created("1"));
+
+    // verificação
+    assertThat(duplicate.getStatus()).isEqualTo(409);
+    release.countDown();
+    executor.shutdown();
+  }
+
+  private MockHttpServletResponse run(MockHttpServletRequest request, FilterChain chain)
+      throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  private FilterChain created(String body) {
+    return (request, response) -> {
+      executions.incrementAndGet();
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      ((HttpServletResponse) response).setStatus(201);
+      response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+  }
+
+  private static MockHttpServletRequest post(String path, String key, String body) {
+    MockHttpServletRequest request = post(path, key);
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+
+  private static MockHttpServletRequest post(String path, String key) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+    if (Objects.nonNull(key)) {
+      request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+    }
+    request.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+    return request;
+  }
+
+}
@@ -1,15 +1,21 @@
 package com.github.kaheero.loans;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.kaheero.book.BookEntity;
 import com.github.kaheero.book.BookService;
 import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.pagination.Cursors;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,11 +26,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -32,7 +43,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 @ActiveProfiles("test")
 @WebMvcTest(controllers = LoanController.class)
 @AutoConfigureMockMvc
-@ComponentScan(basePackages = "com.github.kaheero")
+@Import(LoanMapperImpl.class)
 public class LoanControllerTest {
 
   private static final String API_PATH_LOANS = "/loans";
@@ -56,8 +67,11 @@ public class LoanControllerTest {
         .build();
 
     BDDMockito
-        .given(bookService.getBookByIsbn("123"))
-        .willReturn(Optional.of(bookEntity));
+        .given(bookService.getBookIdByIsbn("123"))
+        .willReturn(Optional.of(1L));
+    BDDMockito
+        .given(bookService.getBookReference(1L))
+        .willReturn(bookEntity);
 
     LoanEntity loanEntity = LoanEntity.builder()
         .id(1L)
@@ -87,6 +101,7 @@ public class LoanControllerTest {
     mvc.perform(requestBuilder)
         .andExpect(status().isCreated())
         .andExpect(content().string("1"));
+    Mockito.verify(bookService, Mockito.never()).getBookByIsbn(Mockito.anyString());
   }
 
   @Test
@@ -99,7 +114,7 @@ public class LoanControllerTest {
         .build();
 
     BDDMockito
-        .given(bookService.getBookByIsbn("123"))
+        .given(bookService.getBookIdByIsbn("123"))
         .willReturn(Optional.empty());
 
     String payload = new ObjectMapper().writeValueAsString(loanDTO);
@@ -118,13 +133,12 @@ public class LoanControllerTest {
   @DisplayName("Deve retornar erro ao tentar fazer empréstimo de um livro emprestado.")
   public void loanedBookErrorOnCreateLoanTest() throws Exception {
 
-    BookEntity bookEntity = BookEntity.builder()
-        .isbn("123")
-        .build();
-
     BDDMockito
-        .given(bookService.getBookByIsbn("123"))
-        .willReturn(Optional.of(bookEntity));
+        .given(bookService.getBookIdByIsbn("123"))
+        .willReturn(Optional.of(1L));
+    BDDMockito
+        .given(bookService.getBookReference(1L))
+        .willReturn(BookEntity.builder().id(1L).build());
 
     BDDMockito
         .given(loanService.save(Mockito.any(LoanEntity.class)))
@@ -147,4 +161,169 @@ public class LoanControllerTest {
         .andExpect(jsonPath("errors[0]").value("Book already loaned"));
   }
 
+  @Test
+  @DisplayName("Deve devolver um empréstimo.")
+  public void returnLoanTest() throws Exception {
+    LoanEntity loan = createLoan();
+    BDDMockito.given(loanService.getLoanById(1L)).willReturn(Optional.of(loan));
+    BDDMockito
+        .given(loanService.returnLoan(loan))
+        .willAnswer(invocation -> {
+          loan.setReturned(Boolean.TRUE);
+          loan.setEndAt(LocalDate.now());
+          return loan;
+        });
+
+    mvc.perform(MockMvcRequestBuilders.post(API_PATH_LOANS + "/1/return"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("id").value(1))
+        .andExpect(jsonPath("returned").value(true))
+        .andExpect(jsonPath("endAt").value(LocalDate.now().toString()));
+  }
+
+  @Test
+  @DisplayName("Deve retornar 404 ao renovar um empréstimo inexistente.")
+  public void renewMissingLoanTest() throws Exception {
+    BDDMockito.given(loanService.getLoanById(1L)).willReturn(Optional.empty());
+
+    mvc.perform(MockMvcRequestBuilders.post(API_PATH_LOANS + "/1/renew"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("Deve retornar erro ao renovar um empréstimo atrasado.")
+  public void renewOverdueLoanTest() throws Exception {
+    LoanEntity loan = createLoan();
+    BDDMockito.given(loanService.getLoanById(1L)).willReturn(Optional.of(loan));
+    BDDMockito
+        .given(loanService.renew(loan))
+        .willThrow(new BusinessException("Overdue loans cannot be renewed"));
+
+    mvc.perform(MockMvcRequestBuilders.post(API_PATH_LOANS + "/1/renew"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("errors[0]").value("Overdue loans cannot be renewed"));
+  }
+
+  @Test
+  @DisplayName("Deve retornar 409 quando o empréstimo mudar durante a devolução.")
+  public void returnConcurrentlyModifiedLoanTest() throws Exception {
+    LoanEntity loan = createLoan();
+    BDDMockito.given(loanService.getLoanById(1L)).willReturn(Optional.of(loan));
+    BDDMockito
+        .given(loanService.returnLoan(loan))
+        .willThrow(new ObjectOptimisticLockingFailureException(LoanEntity.class, 1L));
+
+    mvc.perform(MockMvcRequestBuilders.post(API_PATH_LOANS + "/1/return"))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  @DisplayName("Deve listar o histórico de empréstimos de um isbn em páginas por cursor.")
+  public void findLoansByIsbnTest() throws Exception {
+    // cenário
+    BDDMockito
+        .given(loanService.findHistoryByIsbn("123", null, 2))
+        .willReturn(new SliceImpl<>(Arrays.asList(history(3L), history(2L)),
+            PageRequest.ofSize(2), true));
+
+    // execução
+    MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+        .get(API_PATH_LOANS)
+        .param("isbn", "123")
+        .param("size", "2");
+
+    // verificação
+    mvc.perform(requestBuilder)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("content", Matchers.hasSize(2)))
+        .andExpect(jsonPath("content[0].id").value(3))
+        .andExpect(jsonPath("content[0].customer").value("John Doe"))
+        .andExpect(jsonPath("next").value(Cursors.encode(2L)));
+  }
+
+  @Test
+  @DisplayName("Deve continuar o histórico de um cliente a partir do cursor.")
+  public void findLoansByCustomerAfterCursorTest() throws Exception {
+    // cenário
+    BDDMockito
+        .given(loanService.findHistoryByCustomer("John Doe", 2L, 20))
+        .willReturn(new SliceImpl<>(Collections.singletonList(history(1L)),
+            PageRequest.ofSize(20), false));
+
+    // execução
+    MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+        .get(API_PATH_LOANS)
+        .param("customer", "John Doe")
+        .param("cursor", Cursors.encode(2L));
+
+    // verificação
+    mvc.perform(requestBuilder)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("content[0].id").value(1))
+        .andExpect(jsonPath("next").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Deve exigir exatamente um filtro no histórico de empréstimos.")
+  public void findLoansWithoutFilterTest() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.get(API_PATH_LOANS))
+        .andExpect(status().isBadRequest());
+    mvc.perform(MockMvcRequestBuilders.get(API_PATH_LOANS)
+            .param("isbn", "123")
+            .param("customer", "John Doe"))
+        .andExpect(status().isBadRequest());
+    Mockito.verifyNoInteractions(loanService);
+  }
+
+  @Test
+  @DisplayName("Deve exportar o histórico de um cliente como NDJSON.")
+  public void exportLoansTest() throws Exception {
+    // cenário
+    Mockito
+        .doAnswer(invocation -> {
+          Consumer<LoanHistory> action = invocation.getArgument(1);
+          action.accept(history(2L));
+          action.accept(history(1L));
+          return null;
+        })
+        .when(loanService).exportHistoryByCustomer(Mockito.eq("John Doe"), Mockito.any());
+
+    // execução
+    MvcResult result = mvc.perform(MockMvcRequestBuilders
+            .get(API_PATH_LOANS.concat("/_export"))
+            .param("customer", "John Doe")
+            .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // verificação
+    String startAt = LocalDate.now().toString();
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(
+            "{\"id\":2,\"isbn\":\"123\",\"customer\":\"John Doe\",\"startAt\":\"" + startAt
+                + "\",\"returned\":false,\"renewals\":0}\n"
+                + "{\"id\":1,\"isbn\":\"123\",\"customer\":\"John Doe\",\"startAt\":\"" + startAt
+                + "\",\"returned\":false,\"renewals\":0}\n"));
+  }
+
+  private LoanHistory history(Long id) {
+    LoanEntity loan = createLoan();
+    loan.setId(id);
+    return new SpelAwareProxyProjectionFactory().createProjection(LoanHistory.class, loan);
+  }
+
+  private LoanEntity createLoan() {
+    return LoanEntity.builder()
+        .id(1L)
+        .isbn("123")
+        .customer("John Doe")
+        .book(BookEntity.builder().id(1L).isbn("123").build())
+        .startAt(LocalDate.now())
+        .returned(Boolean.FALSE)
+        .renewals(0)
+        .build();
+  }
+
 }
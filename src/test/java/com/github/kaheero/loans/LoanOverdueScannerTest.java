@@ -0,0 +1,200 @@
+package com.github.kaheero.loans;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookRepository;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({LoanOverdueScanner.class, OverdueNoticeWriter.class,
+    LoanOverdueScannerTest.FailingListener.class})
+@TestPropertySource(properties = "library.loans.overdue.chunk-size=2")
+@RecordApplicationEvents
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoanOverdueScannerTest {
+
+  @Autowired
+  private LoanOverdueScanner scanner;
+
+  @Autowired
+  private LoanRepository repository;
+
+  @Autowired
+  private BookRepository bookRepository;
+
+  @Autowired
+  private OverdueNoticeRepository noticeRepository;
+
+  @Autowired
+  private FailingListener failingListener;
+
+  @Autowired
+  private ApplicationEvents events;
+
+  private BookEntity book;
+
+  @BeforeEach
+  public void setup() {
+    book = bookRepository.save(BookEntity.builder()
+        .title("Duna")
+        .author("Frank Herbert")
+        .isbn("978-85-7657-313-5")
+        .build());
+  }
+
+  @AfterEach
+  public void cleanup() {
+    failingListener.failing = false;
+    failingListener.returning = null;
+    noticeRepository.deleteAll();
+    repository.deleteAll();
+    bookRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Deve notificar os empréstimos atrasados em blocos, uma única vez.")
+  void scanOverdueLoansTest() {
+    // cenário
+    LocalDate today = LocalDate.now();
+    for (long i = 1; i <= 5; i++) {
+      repository.save(createOpenLoan(i, today.minusDays(15)));
+    }
+    repository.save(createOpenLoan(6L, today.minusDays(14)));
+
+    // execução
+    int notified = scanner.scan();
+    int notifiedAgain = scanner.scan();
+
+    // verificação
+    Assertions.assertThat(notified).isEqualTo(5);
+    Assertions.assertThat(notifiedAgain).isZero();
+    Assertions.assertThat(events.stream(OverdueLoansEvent.class)
+            .map(event -> event.getLoans().size())
+            .collect(Collectors.toList()))
+        .containsExactly(2, 2, 1);
+    Assertions.assertThat(repository.findAll())
+        .filteredOn(loan -> loan.getActiveBookId() <= 5)
+        .allSatisfy(loan -> Assertions.assertThat(loan.getOverdueNotifiedAt()).isEqualTo(today));
+    Assertions.assertThat(noticeRepository.findAll())
+        .extracting(OverdueNoticeEntity::getCustomer)
+        .containsExactlyInAnyOrder("customer-1", "customer-2", "customer-3", "customer-4",
+            "customer-5");
+  }
+
+  @Test
+  @DisplayName("Deve desfazer a marcação do bloco quando a notificação falhar.")
+  void rollbackChunkWhenListenerFailsTest() {
+    // cenário
+    LocalDate today = LocalDate.now();
+    for (long i = 1; i <= 3; i++) {
+      repository.save(createOpenLoan(i, today.minusDays(15)));
+    }
+    failFromSecondChunk();
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> scanner.scan());
+    failingListener.failing = false;
+    int notifiedAgain = scanner.scan();
+
+    // verificação
+    Assertions.assertThat(throwable).isInstanceOf(IllegalStateException.class);
+    Assertions.assertThat(notifiedAgain).isEqualTo(1);
+    Assertions.assertThat(noticeRepository.count()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Deve ignorar o empréstimo devolvido depois de lido pelo cursor.")
+  void skipLoanReturnedDuringScanTest() {
+    // cenário
+    LocalDate today = LocalDate.now();
+    for (long i = 1; i <= 2; i++) {
+      repository.save(createOpenLoan(i, today.minusDays(15)));
+    }
+    LoanEntity returned = repository.save(createOpenLoan(3L, today.minusDays(15)));
+    failingListener.returning = returned.getId();
+
+    // execução
+    int notified = scanner.scan();
+
+    // verificação
+    Assertions.assertThat(notified).isEqualTo(2);
+    Assertions.assertThat(events.stream(OverdueLoansEvent.class)
+            .map(event -> event.getLoans().size())
+            .collect(Collectors.toList()))
+        .containsExactly(2);
+    Assertions.assertThat(repository.findById(returned.getId()))
+        .hasValueSatisfying(loan -> Assertions.assertThat(loan.getOverdueNotifiedAt()).isNull());
+    Assertions.assertThat(noticeRepository.findAll())
+        .extracting(OverdueNoticeEntity::getLoanId)
+        .doesNotContain(returned.getId())
+        .hasSize(2);
+  }
+
+  private void failFromSecondChunk() {
+    failingListener.failing = true;
+    failingListener.remaining = 1;
+  }
+
+  private LoanEntity createOpenLoan(long activeBookId, LocalDate startAt) {
+    return LoanEntity.builder()
+        .isbn(book.getIsbn())
+        .customer("customer-" + activeBookId)
+        .book(book)
+        .activeBookId(activeBookId)
+        .returned(Boolean.FALSE)
+        .startAt(startAt)
+        .dueAt(startAt.plusDays(14))
+        .build();
+  }
+
+  /**
+   * Fails every chunk after the first {@code remaining} ones while {@code failing} is set, and
+   * returns the loan {@code returning} while the first chunk is being notified.
+   */
+  static class FailingListener {
+
+    @Autowired
+    private LoanRepository repository;
+
+    private volatile boolean failing;
+    private volatile int remaining;
+    private volatile Long returning;
+
+    @EventListener
+    public void fail(OverdueLoansEvent event) {
+      if (Objects.nonNull(returning)) {
+        repository.findById(returning).ifPresent(loan -> {
+          loan.setReturned(Boolean.TRUE);
+          loan.setActiveBookId(null);
+          repository.save(loan);
+        });
+        returning = null;
+      }
+      if (failing && remaining-- <= 0) {
+        throw new IllegalStateException("notice channel unavailable");
+      }
+    }
+
+  }
+
+}
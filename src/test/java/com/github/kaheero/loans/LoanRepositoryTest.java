@@ -0,0 +1,336 @@
+package com.github.kaheero.loans;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.book.BookRepository;
+import com.github.kaheero.exceptions.BusinessException;
+import com.github.kaheero.exceptions.ConstraintViolations;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoanRepositoryTest {
+
+  @Autowired
+  private LoanRepository repository;
+
+  @Autowired
+  private BookRepository bookRepository;
+
+  private BookEntity book;
+
+  @BeforeEach
+  public void setup() {
+    book = bookRepository.save(BookEntity.builder()
+        .title("Duna")
+        .author("Frank Herbert")
+        .isbn("978-85-7657-313-5")
+        .build());
+  }
+
+  @AfterEach
+  public void cleanup() {
+    repository.deleteAll();
+    bookRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar pelo índice único um segundo empréstimo ativo do mesmo livro.")
+  void rejectSecondActiveLoanTest() {
+    // cenário
+    repository.saveAndFlush(createActiveLoan("John Doe"));
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(
+        () -> repository.saveAndFlush(createActiveLoan("Jane Doe")));
+
+    // verificação
+    Assertions.assertThat(throwable).isInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  @Test
+  @DisplayName("Deve permitir um novo empréstimo depois que o anterior for devolvido.")
+  void loanAgainAfterReturnTest() {
+    // cenário
+    LoanEntity loan = repository.saveAndFlush(createActiveLoan("John Doe"));
+    loan.setReturned(Boolean.TRUE);
+    loan.setActiveBookId(null);
+    repository.saveAndFlush(loan);
+
+    // execução
+    LoanEntity next = repository.saveAndFlush(createActiveLoan("Jane Doe"));
+
+    // verificação
+    Assertions.assertThat(next.getId()).isNotNull();
+    Assertions.assertThat(repository.findAll())
+        .filteredOn(stored -> book.getId().equals(stored.getActiveBookId()))
+        .extracting(LoanEntity::getCustomer)
+        .containsExactly("Jane Doe");
+    Assertions.assertThat(repository.count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar pela chave estrangeira a exclusão de um livro com empréstimos.")
+  void rejectDeleteOfLoanedBookTest() {
+    // cenário
+    LoanEntity loan = repository.saveAndFlush(createActiveLoan("John Doe"));
+    loan.setReturned(Boolean.TRUE);
+    loan.setActiveBookId(null);
+    repository.saveAndFlush(loan);
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> bookRepository.delete(book));
+
+    // verificação
+    Assertions.assertThat(throwable).isInstanceOf(DataIntegrityViolationException.class);
+    Assertions.assertThat(ConstraintViolations.isViolationOf(
+        (DataIntegrityViolationException) throwable, BookEntity.LOAN_CONSTRAINT)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Deve registrar o empréstimo com uma referência ao livro, sem carregá-lo.")
+  void saveLoanWithBookReferenceTest() {
+    // cenário
+    LoanService service = new LoanServiceImpl(repository, Period.ofDays(14), 2);
+    BookEntity reference = bookRepository.getById(book.getId());
+    LoanEntity loan = createActiveLoan("John Doe");
+    loan.setBook(reference);
+
+    // execução
+    LoanEntity saved = service.save(loan);
+
+    // verificação
+    Assertions.assertThat(Hibernate.isInitialized(reference)).isFalse();
+    Assertions.assertThat(repository.findById(saved.getId()))
+        .hasValueSatisfying(stored ->
+            Assertions.assertThat(stored.getActiveBookId()).isEqualTo(book.getId()));
+  }
+
+  @Test
+  @DisplayName("Deve conceder apenas um empréstimo quando vários clientes disputam o mesmo livro.")
+  void concurrentCheckoutTest() throws InterruptedException {
+    // cenário
+    LoanService service = new LoanServiceImpl(repository, Period.ofDays(14), 2);
+    int customers = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(customers);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<LoanEntity>> attempts = new ArrayList<>();
+
+    // execução
+    for (int i = 0; i < customers; i++) {
+      LoanEntity loan = createActiveLoan("customer-" + i);
+      Callable<LoanEntity> checkout = () -> {
+        start.await();
+        return service.save(loan);
+      };
+      attempts.add(executor.submit(checkout));
+    }
+    start.countDown();
+    int granted = 0;
+    int rejected = 0;
+    for (Future<LoanEntity> attempt : attempts) {
+      try {
+        attempt.get();
+        granted++;
+      } catch (ExecutionException exception) {
+        Assertions.assertThat(exception.getCause())
+            .isInstanceOf(BusinessException.class)
+            .hasMessage("Book already loaned");
+        rejected++;
+      }
+    }
+    executor.shutdown();
+
+    // verificação
+    Assertions.assertThat(granted).isEqualTo(1);
+    Assertions.assertThat(rejected).isEqualTo(customers - 1);
+    Assertions.assertThat(repository.count()).isEqualTo(1);
+  }
+
+  @Test
+  @Transactional
+  @DisplayName("Deve listar em ordem de id apenas os empréstimos abertos e atrasados.")
+  void streamOverdueTest() {
+    // cenário
+    LocalDate today = LocalDate.now();
+    List<Long> overdue = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      overdue.add(repository.save(createOpenLoan(i, today.minusDays(20))).getId());
+    }
+    repository.save(createOpenLoan(4L, today.minusDays(3)));
+    LoanEntity returned = createOpenLoan(5L, today.minusDays(30));
+    returned.setReturned(Boolean.TRUE);
+    returned.setActiveBookId(null);
+    repository.save(returned);
+
+    // execução
+    List<OverdueLoan> loans;
+    try (Stream<OverdueLoan> stream = repository.streamOverdue(today)) {
+      loans = stream.collect(Collectors.toList());
+    }
+
+    // verificação
+    Assertions.assertThat(loans).extracting(OverdueLoan::getId).containsExactlyElementsOf(overdue);
+    Assertions.assertThat(loans.get(0).getCustomer()).isEqualTo("customer-1");
+    Assertions.assertThat(loans.get(0).getDueAt()).isEqualTo(today.minusDays(6));
+  }
+
+  @Test
+  @DisplayName("Deve marcar em lote só os empréstimos que continuam atrasados e sem aviso.")
+  void markOverdueNotifiedTest() {
+    // cenário
+    LocalDate today = LocalDate.now();
+    List<Long> ids = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      ids.add(repository.save(createOpenLoan(i, today.minusDays(20))).getId());
+    }
+    LoanEntity returned = createOpenLoan(4L, today.minusDays(20));
+    returned.setReturned(Boolean.TRUE);
+    returned.setActiveBookId(null);
+    LoanEntity notified = createOpenLoan(5L, today.minusDays(20));
+    notified.setOverdueNotifiedAt(today.minusDays(1));
+    List<Long> skipped = Arrays.asList(
+        repository.save(returned).getId(),
+        repository.save(notified).getId(),
+        repository.save(createOpenLoan(6L, today.minusDays(3))).getId());
+
+    // execução
+    List<Long> marked = new ArrayList<>(ids.subList(0, 2));
+    marked.addAll(skipped);
+    int updated = repository.markOverdueNotified(marked, today, today);
+
+    // verificação
+    Assertions.assertThat(updated).isEqualTo(2);
+    Assertions.assertThat(repository.findAll())
+        .filteredOn(loan -> today.equals(loan.getOverdueNotifiedAt()))
+        .extracting(LoanEntity::getId)
+        .containsExactlyInAnyOrderElementsOf(ids.subList(0, 2));
+  }
+
+  @Test
+  @DisplayName("Deve paginar o histórico de um isbn por cursor, do mais recente ao mais antigo.")
+  void findHistoryByIsbnTest() {
+    // cenário
+    List<Long> ids = new ArrayList<>();
+    for (long i = 1; i <= 5; i++) {
+      ids.add(repository.save(createOpenLoan(i, LocalDate.now())).getId());
+    }
+    LoanEntity other = createOpenLoan(6L, LocalDate.now());
+    other.setIsbn("other");
+    repository.save(other);
+    Collections.reverse(ids);
+
+    // execução
+    Slice<LoanHistory> first = repository.findHistoryByIsbn(book.getIsbn(), Long.MAX_VALUE,
+        PageRequest.ofSize(3));
+    Slice<LoanHistory> second = repository.findHistoryByIsbn(book.getIsbn(),
+        first.getContent().get(2).getId(), PageRequest.ofSize(3));
+
+    // verificação
+    Assertions.assertThat(first.hasNext()).isTrue();
+    Assertions.assertThat(first.getContent()).extracting(LoanHistory::getId)
+        .containsExactlyElementsOf(ids.subList(0, 3));
+    Assertions.assertThat(second.hasNext()).isFalse();
+    Assertions.assertThat(second.getContent()).extracting(LoanHistory::getId)
+        .containsExactlyElementsOf(ids.subList(3, 5));
+  }
+
+  @Test
+  @DisplayName("Deve paginar o histórico de um cliente sem carregar o livro.")
+  void findHistoryByCustomerTest() {
+    // cenário
+    LoanEntity loan = repository.save(createOpenLoan(1L, LocalDate.now()));
+    repository.save(createOpenLoan(2L, LocalDate.now()));
+
+    // execução
+    Slice<LoanHistory> history = repository.findHistoryByCustomer("customer-1", Long.MAX_VALUE,
+        PageRequest.ofSize(10));
+
+    // verificação
+    Assertions.assertThat(history.hasNext()).isFalse();
+    Assertions.assertThat(history.getContent()).singleElement()
+        .satisfies(found -> {
+          Assertions.assertThat(found.getId()).isEqualTo(loan.getId());
+          Assertions.assertThat(found.getIsbn()).isEqualTo(book.getIsbn());
+          Assertions.assertThat(found.getReturned()).isFalse();
+        });
+  }
+
+  @Test
+  @Transactional
+  @DisplayName("Deve transmitir todo o histórico de um cliente, do mais recente ao mais antigo.")
+  void streamHistoryByCustomerTest() {
+    // cenário
+    List<Long> ids = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      LoanEntity loan = createOpenLoan(i, LocalDate.now());
+      loan.setCustomer("John Doe");
+      ids.add(repository.save(loan).getId());
+    }
+    repository.save(createOpenLoan(4L, LocalDate.now()));
+    Collections.reverse(ids);
+
+    // execução
+    List<Long> streamed;
+    try (Stream<LoanHistory> stream = repository.streamHistoryByCustomer("John Doe")) {
+      streamed = stream.map(LoanHistory::getId).collect(Collectors.toList());
+    }
+
+    // verificação
+    Assertions.assertThat(streamed).containsExactlyElementsOf(ids);
+  }
+
+  private LoanEntity createOpenLoan(long activeBookId, LocalDate startAt) {
+    return LoanEntity.builder()
+        .isbn(book.getIsbn())
+        .customer("customer-" + activeBookId)
+        .book(book)
+        .activeBookId(activeBookId)
+        .returned(Boolean.FALSE)
+        .startAt(startAt)
+        .dueAt(startAt.plusDays(14))
+        .build();
+  }
+
+  private LoanEntity createActiveLoan(String customer) {
+    return LoanEntity.builder()
+        .isbn(book.getIsbn())
+        .customer(customer)
+        .book(book)
+        .activeBookId(book.getId())
+        .returned(Boolean.FALSE)
+        .startAt(LocalDate.now())
+        .build();
+  }
+
+}
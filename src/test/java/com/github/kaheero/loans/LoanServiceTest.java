@@ -0,0 +1,216 @@
+package com.github.kaheero.loans;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.kaheero.book.BookEntity;
+import com.github.kaheero.exceptions.BusinessException;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Collections;
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+class LoanServiceTest {
+
+  private LoanService service;
+
+  @MockBean
+  private LoanRepository repository;
+
+  @BeforeEach
+  public void setup() {
+    this.service = new LoanServiceImpl(repository, Period.ofDays(14), 2);
+  }
+
+  @Test
+  @DisplayName("Deve salvar um empréstimo ativo para o livro.")
+  void saveLoanTest() {
+    // cenário
+    LoanEntity loan = createLoan();
+    Mockito
+        .when(repository.saveAndFlush(loan))
+        .thenAnswer(invocation -> {
+          LoanEntity saved = invocation.getArgument(0);
+          saved.setId(1L);
+          return saved;
+        });
+
+    // execução
+    LoanEntity saved = service.save(loan);
+
+    // verificação
+    assertThat(saved.getId()).isEqualTo(1L);
+    assertThat(saved.getReturned()).isFalse();
+    assertThat(saved.getDueAt()).isEqualTo(LocalDate.now().plusDays(14));
+    assertThat(saved.getActiveBookId()).isEqualTo(loan.getBook().getId());
+  }
+
+  @Test
+  @DisplayName("Deve registrar o empréstimo com um único insert, sem consultar antes.")
+  void saveLoanWithSingleInsertTest() {
+    // cenário
+    LoanEntity loan = createLoan();
+    Mockito.when(repository.saveAndFlush(loan)).thenReturn(loan);
+
+    // execução
+    service.save(loan);
+
+    // verificação
+    Mockito.verify(repository).saveAndFlush(loan);
+    Mockito.verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  @DisplayName("Deve traduzir a violação do índice de empréstimo ativo em erro de negócio.")
+  void translateActiveLoanViolationTest() {
+    // cenário
+    LoanEntity loan = createLoan();
+    Mockito
+        .when(repository.saveAndFlush(loan))
+        .thenThrow(new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicated", null,
+                "PUBLIC.UK_LOAN_ACTIVE_BOOK_INDEX_4 ON PUBLIC.LOAN_ENTITY(ACTIVE_BOOK_ID)")));
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> service.save(loan));
+
+    // verificação
+    assertThat(throwable)
+        .isInstanceOf(BusinessException.class)
+        .hasMessage("Book already loaned");
+  }
+
+  @Test
+  @DisplayName("Deve devolver o empréstimo liberando o livro.")
+  void returnLoanTest() {
+    // cenário
+    LoanEntity loan = createOpenLoan(LocalDate.now().minusDays(3));
+    Mockito.when(repository.save(loan)).thenReturn(loan);
+
+    // execução
+    LoanEntity returned = service.returnLoan(loan);
+
+    // verificação
+    assertThat(returned.getReturned()).isTrue();
+    assertThat(returned.getEndAt()).isEqualTo(LocalDate.now());
+    assertThat(returned.getActiveBookId()).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve recusar a devolução de um empréstimo já devolvido.")
+  void returnReturnedLoanTest() {
+    // cenário
+    LoanEntity loan = createOpenLoan(LocalDate.now().minusDays(3));
+    loan.setReturned(Boolean.TRUE);
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> service.returnLoan(loan));
+
+    // verificação
+    assertThat(throwable)
+        .isInstanceOf(BusinessException.class)
+        .hasMessage("Loan already returned");
+    Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+  }
+
+  @Test
+  @DisplayName("Deve renovar o empréstimo movendo o vencimento e mantendo o início.")
+  void renewLoanTest() {
+    // cenário
+    LoanEntity loan = createOpenLoan(LocalDate.now().minusDays(10));
+    loan.setOverdueNotifiedAt(LocalDate.now());
+    Mockito.when(repository.save(loan)).thenReturn(loan);
+
+    // execução
+    LoanEntity renewed = service.renew(loan);
+
+    // verificação
+    assertThat(renewed.getStartAt()).isEqualTo(LocalDate.now().minusDays(10));
+    assertThat(renewed.getDueAt()).isEqualTo(LocalDate.now().plusDays(14));
+    assertThat(renewed.getRenewals()).isEqualTo(1);
+    assertThat(renewed.getOverdueNotifiedAt()).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve recusar a renovação de um empréstimo atrasado.")
+  void renewOverdueLoanTest() {
+    // cenário
+    LoanEntity loan = createOpenLoan(LocalDate.now().minusDays(15));
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> service.renew(loan));
+
+    // verificação
+    assertThat(throwable)
+        .isInstanceOf(BusinessException.class)
+        .hasMessage("Overdue loans cannot be renewed");
+  }
+
+  @Test
+  @DisplayName("Deve recusar a renovação além do limite de renovações.")
+  void renewBeyondMaximumTest() {
+    // cenário
+    LoanEntity loan = createOpenLoan(LocalDate.now());
+    loan.setRenewals(2);
+
+    // execução
+    Throwable throwable = Assertions.catchThrowable(() -> service.renew(loan));
+
+    // verificação
+    assertThat(throwable)
+        .isInstanceOf(BusinessException.class)
+        .hasMessage("Loan reached the maximum of 2 renewals");
+    Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+  }
+
+  @Test
+  @DisplayName("Deve começar o histórico pelo empréstimo mais recente quando não houver cursor.")
+  void findHistoryWithoutCursorTest() {
+    // cenário
+    Slice<LoanHistory> empty = new SliceImpl<>(Collections.emptyList());
+    Mockito
+        .when(repository.findHistoryByIsbn("123", Long.MAX_VALUE, PageRequest.ofSize(20)))
+        .thenReturn(empty);
+
+    // execução
+    Slice<LoanHistory> history = service.findHistoryByIsbn("123", null, 20);
+
+    // verificação
+    assertThat(history).isSameAs(empty);
+  }
+
+  private LoanEntity createOpenLoan(LocalDate startAt) {
+    LoanEntity loan = createLoan();
+    loan.setId(1L);
+    loan.setStartAt(startAt);
+    loan.setDueAt(startAt.plusDays(14));
+    loan.setReturned(Boolean.FALSE);
+    loan.setRenewals(0);
+    loan.setActiveBookId(1L);
+    return loan;
+  }
+
+  private LoanEntity createLoan() {
+    return LoanEntity.builder()
+        .isbn("123")
+        .customer("John Doe")
+        .book(BookEntity.builder().id(1L).isbn("123").build())
+        .startAt(LocalDate.now())
+        .build();
+  }
+
+}
@@ -0,0 +1,186 @@
+package com.github.kaheero.routing;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kaheero.book.BookDTO;
+import com.github.kaheero.book.BookService;
+import com.github.kaheero.book.BookVersion;
+import com.jayway.jsonpath.JsonPath;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "library.datasource.routing.enabled=true",
+    "library.datasource.routing.replicas[0].url=jdbc:h2:mem:routing-replica-0;DB_CLOSE_DELAY=-1",
+    "library.datasource.routing.replicas[0].username=sa",
+    "library.datasource.routing.replicas[1].url=jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1",
+    "library.datasource.routing.replicas[1].username=sa"})
+@AutoConfigureMockMvc
+class ReadWriteRoutingDataSourceTest {
+
+  private static final long REPLICATED_ID = 1_000_000L;
+  private static final long STALE_ID = 1_000_001L;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private BookService bookService;
+
+  @Autowired
+  private ReadWriteRoutingDataSource routingDataSource;
+
+  @Autowired
+  private JdbcTemplate primary;
+
+  @BeforeEach
+  void setup() {
+    // replicas without replication: each one holds a single row with its own version, plus a row
+    // that lags behind the primary
+    for (int index = 0; index < 2; index++) {
+      JdbcTemplate replica = new JdbcTemplate(
+          (DataSource) routingDataSource.getResolvedDataSources().get(index));
+      replica.execute("create table if not exists book_entity (id bigint primary key, "
+          + "author varchar(255), isbn varchar(255), last_modified timestamp, "
+          + "title varchar(255), version bigint not null)");
+      replica.update("merge into book_entity (id, title, version) key (id) values (?, ?, ?)",
+          REPLICATED_ID, "Replica " + index, index);
+      replica.update("merge into book_entity (id, title, version) key (id) values (?, ?, 0)",
+          STALE_ID, "Replica " + index);
+    }
+  }
+
+  @Test
+  @DisplayName("Deve alternar as réplicas nas transações somente leitura.")
+  void readFromReplicasRoundRobinTest() {
+    // execução
+    Optional<BookVersion> first = bookService.getBookVersion(REPLICATED_ID);
+    Optional<BookVersion> second = bookService.getBookVersion(REPLICATED_ID);
+
+    // verificação
+    Assertions.assertThat(first).isPresent();
+    Assertions.assertThat(second).isPresent();
+    Assertions.assertThat(first.get().getVersion() + second.get().getVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("Deve ler do primário logo após uma escrita do mesmo cliente.")
+  void readYourWritesTest() throws Exception {
+    // cenário
+    BookDTO book = BookDTO.builder()
+        .title("Duna")
+        .author("Frank Herbert")
+        .isbn("routing-1")
+        .build();
+    String created = mvc.perform(MockMvcRequestBuilders.post("/books")
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isCreated())
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+    Long id = objectMapper.readValue(created, BookDTO.class).getId();
+
+    // execução e verificação
+    mvc.perform(MockMvcRequestBuilders.get("/books/" + id)
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"-1\""))
+        .andExpect(status().isOk());
+    mvc.perform(MockMvcRequestBuilders.get("/books/" + id)
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "reader")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"-1\""))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("Deve carregar o livro da réplica na falta do cache e mantê-lo.")
+  void loadBookCacheFromReplicaTest() throws Exception {
+    // execução
+    String first = mvc.perform(MockMvcRequestBuilders.get("/books/" + REPLICATED_ID)
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "reader"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("title").value(Matchers.startsWith("Replica ")))
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+
+    // verificação
+    mvc.perform(MockMvcRequestBuilders.get("/books/" + REPLICATED_ID)
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "reader"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(first));
+  }
+
+  @Test
+  @DisplayName("Deve carregar a listagem da réplica na falta do cache.")
+  void loadPageCacheFromReplicaTest() throws Exception {
+    // execução e verificação
+    mvc.perform(MockMvcRequestBuilders.get("/books")
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "reader"))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(jsonPath("totalElements").value(2))
+        .andExpect(jsonPath("content[*].title",
+            Matchers.everyItem(Matchers.startsWith("Replica "))));
+  }
+
+  @Test
+  @DisplayName("Não deve manter no cache o livro lido da réplica logo após uma escrita.")
+  void skipCacheFillWithinReadYourWritesWindowTest() throws Exception {
+    // cenário
+    primary.update("merge into book_entity (id, title, version) key (id) values (?, ?, 0)",
+        STALE_ID, "Duna");
+    BookDTO book = BookDTO.builder()
+        .title("Messias de Duna")
+        .author("Frank Herbert")
+        .build();
+
+    // execução
+    mvc.perform(MockMvcRequestBuilders.put("/books/" + STALE_ID)
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isOk());
+
+    // verificação
+    Set<String> titles = new HashSet<>();
+    for (int read = 0; read < 2; read++) {
+      titles.add(JsonPath.read(mvc.perform(MockMvcRequestBuilders.get("/books/" + STALE_ID)
+              .header(ReadYourWritesFilter.CLIENT_HEADER, "reader"))
+          .andExpect(status().isOk())
+          .andReturn()
+          .getResponse()
+          .getContentAsString(), "title"));
+    }
+    Assertions.assertThat(titles).containsExactlyInAnyOrder("Replica 0", "Replica 1");
+    mvc.perform(MockMvcRequestBuilders.get("/books/" + STALE_ID)
+            .header(ReadYourWritesFilter.CLIENT_HEADER, "writer"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("title").value("Messias de Duna"));
+  }
+
+}